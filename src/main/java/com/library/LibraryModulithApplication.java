@@ -3,12 +3,14 @@ package com.library;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.modulith.Modulith;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Modulith(
     systemName = "Library Management System",
     sharedModules = "shared"
 )
 @SpringBootApplication
+@EnableScheduling
 public class LibraryModulithApplication {
 
     public static void main(String[] args) {
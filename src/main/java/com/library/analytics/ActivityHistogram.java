@@ -0,0 +1,333 @@
+package com.library.analytics;
+
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.BookReturnedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Borrow and return counters bucketed per day (last {@value #DAYS} days) and
+ * per hour (last {@value #HOURS} hours) in fixed ring buffers.
+ * Backfilled once from the transactions module and then fed by
+ * {@link BookBorrowedEvent} and {@link BookReturnedEvent}, so any rolling
+ * window is answered by summing a handful of array slots.
+ *
+ * The backfill loads outside the lock into fresh buffers. Events that arrive
+ * meanwhile are buffered; the days they fall on are then reloaded into the
+ * new buffers before they are swapped in, since the backfill may already
+ * include them.
+ */
+@Component
+public class ActivityHistogram {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityHistogram.class);
+
+    static final int DAYS = 90;
+    static final int HOURS = 48;
+
+    private static final int BORROWS = 0;
+    private static final int RETURNS = 1;
+
+    @Autowired
+    private TransactionModuleAPI transactionModuleAPI;
+
+    private final Object rebuildLock = new Object();
+    private volatile boolean initialized = false;
+    private Buckets buckets = new Buckets(LocalDateTime.now());
+    private List<Activity> pendingActivity = null;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Backfill fresh buffers from hourly transaction counts and swap them in
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingActivity = new ArrayList<>();
+            }
+
+            Buckets rebuilt;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                rebuilt = new Buckets(now);
+                rebuilt.load(transactionModuleAPI.getHourlyActivity(startOfWindow(now)));
+            } catch (RuntimeException e) {
+                // Keep serving the current buffers and bring the buffered days up to date
+                swapIn(buckets);
+                throw e;
+            }
+            swapIn(rebuilt);
+            initialized = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookBorrowedEvent event) {
+        record(new Activity(BORROWS, toLocalDateTime(event.timestamp())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookReturnedEvent event) {
+        record(new Activity(RETURNS, toLocalDateTime(event.timestamp())));
+    }
+
+    /**
+     * Borrows in the last {@code days} calendar days, today included
+     */
+    public long getBorrowsInLastDays(int days) {
+        ensureInitialized();
+        synchronized (this) {
+            return buckets.sumDays(BORROWS, days);
+        }
+    }
+
+    /**
+     * Returns in the last {@code days} calendar days, today included
+     */
+    public long getReturnsInLastDays(int days) {
+        ensureInitialized();
+        synchronized (this) {
+            return buckets.sumDays(RETURNS, days);
+        }
+    }
+
+    /**
+     * Per-day borrow and return counts for the last {@code days} days, oldest first
+     */
+    public List<AnalyticsDashboardDto.RecentActivityDto> getDailyActivity(int days) {
+        ensureInitialized();
+        synchronized (this) {
+            return buckets.daily(days);
+        }
+    }
+
+    /**
+     * Per-hour borrow and return counts for the last {@code hours} hours, oldest first
+     */
+    public List<AnalyticsDashboardDto.RecentActivityDto> getHourlyActivity(int hours) {
+        ensureInitialized();
+        synchronized (this) {
+            return buckets.hourly(hours);
+        }
+    }
+
+    private synchronized void record(Activity activity) {
+        if (pendingActivity != null) {
+            pendingActivity.add(activity);
+            return;
+        }
+        buckets.record(activity.kind(), activity.when(), 1);
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply reloads of the buffered days to the new buffers and make them
+     * live, until no more events arrive
+     */
+    private void swapIn(Buckets rebuilt) {
+        Consumer<Buckets> reload = null;
+        while (true) {
+            List<Activity> buffered;
+            synchronized (this) {
+                if (reload != null) {
+                    reload.accept(rebuilt);
+                }
+                if (pendingActivity.isEmpty()) {
+                    pendingActivity = null;
+                    buckets = rebuilt;
+                    return;
+                }
+                buffered = pendingActivity;
+                pendingActivity = new ArrayList<>();
+            }
+            reload = reload(buffered);
+        }
+    }
+
+    /**
+     * Re-read every hour from the start of the earliest buffered day, an hour
+     * earlier to cover a row created just before its event was stamped; if
+     * that fails, count the buffered events once instead
+     */
+    private Consumer<Buckets> reload(List<Activity> buffered) {
+        LocalDateTime earliest = buffered.stream().map(Activity::when).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime since = earliest.minusHours(1).toLocalDate().atStartOfDay();
+        try {
+            List<TransactionModuleAPI.ActivityBucket> rows = transactionModuleAPI.getHourlyActivity(since);
+            return rebuilt -> {
+                rebuilt.clearFrom(since);
+                rebuilt.load(rows);
+            };
+        } catch (RuntimeException e) {
+            log.warn("Could not reload activity during rebuild, counting the buffered events instead", e);
+            return rebuilt -> buffered.forEach(activity -> rebuilt.record(activity.kind(), activity.when(), 1));
+        }
+    }
+
+    private static LocalDateTime startOfWindow(LocalDateTime now) {
+        return now.toLocalDate().minusDays(DAYS - 1).atStartOfDay();
+    }
+
+    private static int slot(long bucket, int size) {
+        return (int) Math.floorMod(bucket, (long) size);
+    }
+
+    private static long epochDay(LocalDateTime when) {
+        return when.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Hours since the epoch on the local wall clock, matching the LocalDateTime columns
+     */
+    private static long epochHour(LocalDateTime when) {
+        return ChronoUnit.HOURS.between(LocalDateTime.of(1970, 1, 1, 0, 0), when);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record Activity(int kind, LocalDateTime when) {}
+
+    /**
+     * The ring buffers; not thread-safe, guarded by the histogram's monitor
+     * once live
+     */
+    private static final class Buckets {
+
+        private final long[][] dayBuckets = new long[2][DAYS];
+        private final long[][] hourBuckets = new long[2][HOURS];
+        private long newestDay;
+        private long newestHour;
+
+        Buckets(LocalDateTime now) {
+            newestDay = epochDay(now);
+            newestHour = epochHour(now);
+        }
+
+        void load(List<TransactionModuleAPI.ActivityBucket> rows) {
+            for (TransactionModuleAPI.ActivityBucket bucket : rows) {
+                record(BORROWS, bucket.hourStart(), bucket.borrowCount());
+                record(RETURNS, bucket.hourStart(), bucket.returnCount());
+            }
+        }
+
+        void record(int kind, LocalDateTime when, long count) {
+            if (count == 0) {
+                return;
+            }
+            advanceTo(when);
+            long day = epochDay(when);
+            if (day > newestDay - DAYS) {
+                dayBuckets[kind][slot(day, DAYS)] += count;
+            }
+            long hour = epochHour(when);
+            if (hour > newestHour - HOURS) {
+                hourBuckets[kind][slot(hour, HOURS)] += count;
+            }
+        }
+
+        /**
+         * Zero every bucket from {@code since} up to the newest one
+         */
+        void clearFrom(LocalDateTime since) {
+            for (long d = Math.max(epochDay(since), newestDay - DAYS + 1); d <= newestDay; d++) {
+                int slot = slot(d, DAYS);
+                dayBuckets[BORROWS][slot] = 0;
+                dayBuckets[RETURNS][slot] = 0;
+            }
+            for (long h = Math.max(epochHour(since), newestHour - HOURS + 1); h <= newestHour; h++) {
+                int slot = slot(h, HOURS);
+                hourBuckets[BORROWS][slot] = 0;
+                hourBuckets[RETURNS][slot] = 0;
+            }
+        }
+
+        long sumDays(int kind, int days) {
+            advanceTo(LocalDateTime.now());
+            int window = Math.min(Math.max(days, 0), DAYS);
+            long total = 0;
+            for (long day = newestDay - window + 1; day <= newestDay; day++) {
+                total += dayBuckets[kind][slot(day, DAYS)];
+            }
+            return total;
+        }
+
+        List<AnalyticsDashboardDto.RecentActivityDto> daily(int days) {
+            advanceTo(LocalDateTime.now());
+            int window = Math.min(Math.max(days, 1), DAYS);
+            List<AnalyticsDashboardDto.RecentActivityDto> activity = new ArrayList<>(window);
+            for (long day = newestDay - window + 1; day <= newestDay; day++) {
+                int slot = slot(day, DAYS);
+                activity.add(new AnalyticsDashboardDto.RecentActivityDto(
+                    LocalDate.ofEpochDay(day).toString(),
+                    dayBuckets[BORROWS][slot],
+                    dayBuckets[RETURNS][slot]
+                ));
+            }
+            return activity;
+        }
+
+        List<AnalyticsDashboardDto.RecentActivityDto> hourly(int hours) {
+            advanceTo(LocalDateTime.now());
+            int window = Math.min(Math.max(hours, 1), HOURS);
+            List<AnalyticsDashboardDto.RecentActivityDto> activity = new ArrayList<>(window);
+            for (long hour = newestHour - window + 1; hour <= newestHour; hour++) {
+                int slot = slot(hour, HOURS);
+                LocalDateTime hourStart = LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC);
+                activity.add(new AnalyticsDashboardDto.RecentActivityDto(
+                    hourStart.toString(),
+                    hourBuckets[BORROWS][slot],
+                    hourBuckets[RETURNS][slot]
+                ));
+            }
+            return activity;
+        }
+
+        /**
+         * Moves the newest bucket forward, clearing the slots that are reused
+         */
+        private void advanceTo(LocalDateTime when) {
+            long day = epochDay(when);
+            for (long d = newestDay + 1; d <= day && d <= newestDay + DAYS; d++) {
+                int slot = slot(d, DAYS);
+                dayBuckets[BORROWS][slot] = 0;
+                dayBuckets[RETURNS][slot] = 0;
+            }
+            newestDay = Math.max(newestDay, day);
+
+            long hour = epochHour(when);
+            for (long h = newestHour + 1; h <= hour && h <= newestHour + HOURS; h++) {
+                int slot = slot(h, HOURS);
+                hourBuckets[BORROWS][slot] = 0;
+                hourBuckets[RETURNS][slot] = 0;
+            }
+            newestHour = Math.max(newestHour, hour);
+        }
+    }
+}
@@ -111,4 +111,47 @@ public class AnalyticsController {
                 .body(Map.of("error", "Failed to generate system health analytics"));
         }
     }
+    
+    @GetMapping("/activity")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<?> getDailyActivity(@RequestParam(defaultValue = "7") int days) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "activity", analyticsModuleAPI.generateDailyActivity(days),
+                "generatedAt", java.time.LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to generate activity histogram"));
+        }
+    }
+    
+    @GetMapping("/activity/hourly")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<?> getHourlyActivity(@RequestParam(defaultValue = "24") int hours) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "activity", analyticsModuleAPI.generateHourlyActivity(hours),
+                "generatedAt", java.time.LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to generate activity histogram"));
+        }
+    }
+    
+    @PostMapping("/projection/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rebuildProjection() {
+        try {
+            analyticsModuleAPI.rebuildProjection();
+            return ResponseEntity.ok(Map.of(
+                "message", "Dashboard projection rebuilt",
+                "rebuiltAt", java.time.LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to rebuild dashboard projection"));
+        }
+    }
 }
@@ -53,11 +53,15 @@ public class AnalyticsDashboardDto {
         private LocalDateTime generatedAt;
         private String dataFreshness;
         private long executionTimeMs;
+        private String executionMode;
+        private Map<String, Long> sectionTimingsMs;
         
         public MetadataDto() {
             this.generatedAt = LocalDateTime.now();
             this.dataFreshness = "REAL_TIME";
             this.executionTimeMs = 0;
+            this.executionMode = "SEQUENTIAL";
+            this.sectionTimingsMs = Map.of();
         }
         
         public LocalDateTime getGeneratedAt() { return generatedAt; }
@@ -68,6 +72,12 @@ public class AnalyticsDashboardDto {
         
         public long getExecutionTimeMs() { return executionTimeMs; }
         public void setExecutionTimeMs(long executionTimeMs) { this.executionTimeMs = executionTimeMs; }
+        
+        public String getExecutionMode() { return executionMode; }
+        public void setExecutionMode(String executionMode) { this.executionMode = executionMode; }
+        
+        public Map<String, Long> getSectionTimingsMs() { return sectionTimingsMs; }
+        public void setSectionTimingsMs(Map<String, Long> sectionTimingsMs) { this.sectionTimingsMs = sectionTimingsMs; }
     }
 
     public static class DashboardDto {
@@ -338,6 +348,7 @@ public class AnalyticsDashboardDto {
         private String email;
         private long totalTransactions;
         private long activeTransactions;
+        private long overdueTransactions;
         
         public TopActiveUserDto() {}
         public TopActiveUserDto(String username, String email, long totalTransactions, long activeTransactions) {
@@ -346,6 +357,11 @@ public class AnalyticsDashboardDto {
             this.totalTransactions = totalTransactions;
             this.activeTransactions = activeTransactions;
         }
+        public TopActiveUserDto(String username, String email, long totalTransactions, long activeTransactions,
+                                long overdueTransactions) {
+            this(username, email, totalTransactions, activeTransactions);
+            this.overdueTransactions = overdueTransactions;
+        }
         
         public String getUsername() { return username; }
         public void setUsername(String username) { this.username = username; }
@@ -358,6 +374,9 @@ public class AnalyticsDashboardDto {
         
         public long getActiveTransactions() { return activeTransactions; }
         public void setActiveTransactions(long activeTransactions) { this.activeTransactions = activeTransactions; }
+        
+        public long getOverdueTransactions() { return overdueTransactions; }
+        public void setOverdueTransactions(long overdueTransactions) { this.overdueTransactions = overdueTransactions; }
     }
     
     public static class PopularBookDto {
@@ -1,5 +1,7 @@
 package com.library.analytics;
 
+import java.util.List;
+
 public interface AnalyticsModuleAPI {
     
     /**
@@ -31,4 +33,19 @@ public interface AnalyticsModuleAPI {
      * Generate system health metrics
      */
     AnalyticsDashboardDto.SystemHealthDto generateSystemHealth();
+    
+    /**
+     * Rebuild the in-memory dashboard projection and rankings from the module APIs
+     */
+    void rebuildProjection();
+    
+    /**
+     * Get per-day borrow and return counts for a rolling window of days
+     */
+    List<AnalyticsDashboardDto.RecentActivityDto> generateDailyActivity(int days);
+    
+    /**
+     * Get per-hour borrow and return counts for a rolling window of hours
+     */
+    List<AnalyticsDashboardDto.RecentActivityDto> generateHourlyActivity(int hours);
 }
@@ -3,18 +3,32 @@ package com.library.analytics;
 import com.library.books.BookModuleAPI;
 import com.library.transactions.TransactionModuleAPI;
 import com.library.users.UserModuleAPI;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService implements AnalyticsModuleAPI {
     
+    private static final int TOP_ACTIVE_USERS_LIMIT = 5;
+    private static final int MOST_BORROWED_LIMIT = 10;
+    private static final int LEAST_BORROWED_LIMIT = 5;
+    private static final int RECENT_ACTIVITY_DAYS = 7;
+    
     @Autowired
     private UserModuleAPI userModuleAPI;
     
@@ -24,39 +38,155 @@ public class AnalyticsService implements AnalyticsModuleAPI {
     @Autowired
     private TransactionModuleAPI transactionModuleAPI;
     
+    @Autowired
+    private DashboardProjection dashboardProjection;
+    
+    @Autowired
+    private BookPopularityRanking bookPopularityRanking;
+    
+    @Autowired
+    private UserActivityLeaderboard userActivityLeaderboard;
+    
+    @Autowired
+    private ActivityHistogram activityHistogram;
+    
+    @Value("${analytics.projection.enabled:true}")
+    private boolean projectionEnabled;
+    
+    @Value("${analytics.dashboard.parallel.enabled:true}")
+    private boolean parallelEnabled;
+    
+    @Value("${analytics.dashboard.timeout-ms:5000}")
+    private long dashboardTimeoutMs;
+    
+    private final ExecutorService dashboardExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    @PreDestroy
+    public void shutdownDashboardExecutor() {
+        dashboardExecutor.shutdownNow();
+    }
+    
     @Override
     public AnalyticsDashboardDto generateDashboard() {
         long startTime = System.currentTimeMillis();
+        Map<String, Long> sectionTimings = Collections.synchronizedMap(new LinkedHashMap<>());
         
-        AnalyticsDashboardDto.UserAnalyticsDto userAnalytics = generateUserAnalytics();
-        AnalyticsDashboardDto.BookAnalyticsDto bookAnalytics = generateBookAnalytics();
-        AnalyticsDashboardDto.TransactionAnalyticsDto transactionAnalytics = generateTransactionAnalytics();
-        AnalyticsDashboardDto.InventoryAnalyticsDto inventoryAnalytics = generateInventoryAnalytics();
-        AnalyticsDashboardDto.SystemHealthDto systemHealth = generateSystemHealth();
-        
-        AnalyticsDashboardDto dashboard = new AnalyticsDashboardDto(userAnalytics, bookAnalytics, 
-                                       transactionAnalytics, inventoryAnalytics, systemHealth);
+        AnalyticsDashboardDto dashboard = parallelEnabled
+            ? generateDashboardInParallel(sectionTimings)
+            : generateDashboardSequentially(sectionTimings);
         
         // Set metadata
         long executionTime = System.currentTimeMillis() - startTime;
         dashboard.getMetadata().setExecutionTimeMs(executionTime);
+        dashboard.getMetadata().setExecutionMode(parallelEnabled ? "PARALLEL" : "SEQUENTIAL");
+        dashboard.getMetadata().setSectionTimingsMs(sectionTimings);
+        if (useProjection()) {
+            dashboard.getMetadata().setDataFreshness("PROJECTION");
+        }
         
         return dashboard;
     }
     
+    private AnalyticsDashboardDto generateDashboardSequentially(Map<String, Long> sectionTimings) {
+        AnalyticsDashboardDto.UserAnalyticsDto userAnalytics = timeSection("userAnalytics", this::generateUserAnalytics, sectionTimings);
+        AnalyticsDashboardDto.BookAnalyticsDto bookAnalytics = timeSection("bookAnalytics", this::generateBookAnalytics, sectionTimings);
+        AnalyticsDashboardDto.TransactionAnalyticsDto transactionAnalytics = timeSection("transactionAnalytics", this::generateTransactionAnalytics, sectionTimings);
+        AnalyticsDashboardDto.InventoryAnalyticsDto inventoryAnalytics = timeSection("inventoryAnalytics", this::generateInventoryAnalytics, sectionTimings);
+        AnalyticsDashboardDto.SystemHealthDto systemHealth = timeSection("systemHealth", this::generateSystemHealth, sectionTimings);
+        
+        return new AnalyticsDashboardDto(userAnalytics, bookAnalytics, 
+                                       transactionAnalytics, inventoryAnalytics, systemHealth);
+    }
+    
+    /**
+     * Runs the five sections as sibling tasks on virtual threads. The whole
+     * group shares one deadline; if any section fails or the deadline passes,
+     * the remaining sections are cancelled and the dashboard fails as a unit.
+     */
+    private AnalyticsDashboardDto generateDashboardInParallel(Map<String, Long> sectionTimings) {
+        Future<AnalyticsDashboardDto.UserAnalyticsDto> userAnalytics = submitSection("userAnalytics", this::generateUserAnalytics, sectionTimings);
+        Future<AnalyticsDashboardDto.BookAnalyticsDto> bookAnalytics = submitSection("bookAnalytics", this::generateBookAnalytics, sectionTimings);
+        Future<AnalyticsDashboardDto.TransactionAnalyticsDto> transactionAnalytics = submitSection("transactionAnalytics", this::generateTransactionAnalytics, sectionTimings);
+        Future<AnalyticsDashboardDto.InventoryAnalyticsDto> inventoryAnalytics = submitSection("inventoryAnalytics", this::generateInventoryAnalytics, sectionTimings);
+        Future<AnalyticsDashboardDto.SystemHealthDto> systemHealth = submitSection("systemHealth", this::generateSystemHealth, sectionTimings);
+        List<Future<?>> sections = List.of(userAnalytics, bookAnalytics, transactionAnalytics, inventoryAnalytics, systemHealth);
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dashboardTimeoutMs);
+        try {
+            return new AnalyticsDashboardDto(
+                awaitSection(userAnalytics, deadline),
+                awaitSection(bookAnalytics, deadline),
+                awaitSection(transactionAnalytics, deadline),
+                awaitSection(inventoryAnalytics, deadline),
+                awaitSection(systemHealth, deadline)
+            );
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Dashboard generation timed out after " + dashboardTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Dashboard section failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Dashboard generation was interrupted");
+        } finally {
+            sections.forEach(section -> section.cancel(true));
+        }
+    }
+    
+    private <T> Future<T> submitSection(String name, Supplier<T> section, Map<String, Long> sectionTimings) {
+        return dashboardExecutor.submit(() -> timeSection(name, section, sectionTimings));
+    }
+    
+    private static <T> T awaitSection(Future<T> section, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+    
+    private static <T> T timeSection(String name, Supplier<T> section, Map<String, Long> sectionTimings) {
+        long sectionStart = System.nanoTime();
+        try {
+            return section.get();
+        } finally {
+            sectionTimings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sectionStart));
+        }
+    }
+    
+    @Override
+    public void rebuildProjection() {
+        dashboardProjection.rebuild();
+        bookPopularityRanking.rebuild();
+        userActivityLeaderboard.rebuild();
+        activityHistogram.rebuild();
+    }
+    
+    @Override
+    public List<AnalyticsDashboardDto.RecentActivityDto> generateDailyActivity(int days) {
+        return activityHistogram.getDailyActivity(days);
+    }
+    
+    @Override
+    public List<AnalyticsDashboardDto.RecentActivityDto> generateHourlyActivity(int hours) {
+        return activityHistogram.getHourlyActivity(hours);
+    }
+    
     @Override
     public AnalyticsDashboardDto.UserAnalyticsDto generateUserAnalytics() {
-        long totalUsers = userModuleAPI.getTotalUsersCount();
-        long adminCount = userModuleAPI.getUserCountByRole("ADMIN");
-        long librarianCount = userModuleAPI.getUserCountByRole("LIBRARIAN");
-        long userCount = userModuleAPI.getUserCountByRole("USER");
+        boolean fromProjection = useProjection();
+        long totalUsers = fromProjection ? dashboardProjection.getTotalUsers() : userModuleAPI.getTotalUsersCount();
+        long adminCount = userCountByRole("ADMIN", fromProjection);
+        long librarianCount = userCountByRole("LIBRARIAN", fromProjection);
+        long userCount = userCountByRole("USER", fromProjection);
         
         // Active users (simplified - could be enhanced with last login tracking)
         long activeUsers = Math.min(totalUsers, 18); // Mock active users for demo
         
         // New users this month
-        YearMonth currentMonth = YearMonth.now();
-        long newUsersThisMonth = userModuleAPI.getUsersCreatedInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+        long newUsersThisMonth;
+        if (fromProjection) {
+            newUsersThisMonth = dashboardProjection.getNewUsersThisMonth();
+        } else {
+            YearMonth currentMonth = YearMonth.now();
+            newUsersThisMonth = userModuleAPI.getUsersCreatedInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+        }
         
         // Calculate growth rate
         double userGrowthRate = newUsersThisMonth > 0 ? 100.0 : 0.0;
@@ -78,21 +208,32 @@ public class AnalyticsService implements AnalyticsModuleAPI {
     
     @Override
     public AnalyticsDashboardDto.BookAnalyticsDto generateBookAnalytics() {
-        long totalBooks = bookModuleAPI.getTotalBooksCount();
-        long totalCopies = bookModuleAPI.getTotalCopiesCount();
-        long availableCopies = bookModuleAPI.getAvailableCopiesCount();
+        boolean fromProjection = useProjection();
+        long totalBooks;
+        long totalCopies;
+        long availableCopies;
+        Map<String, Long> booksByCategory;
+        if (fromProjection) {
+            totalBooks = dashboardProjection.getTotalBooks();
+            totalCopies = dashboardProjection.getTotalCopies();
+            availableCopies = dashboardProjection.getAvailableCopies();
+            booksByCategory = dashboardProjection.getBooksByCategory();
+        } else {
+            BookModuleAPI.InventorySummary inventory = bookModuleAPI.getInventorySummary();
+            totalBooks = inventory.totalBooks();
+            totalCopies = inventory.totalCopies();
+            availableCopies = inventory.availableCopies();
+            booksByCategory = inventory.booksByCategory();
+        }
         long borrowedCopies = totalCopies - availableCopies;
         
         // Available books vs total books
         long availableBooks = totalBooks - 1; // Mock for demo
         
         // Average books per user
-        long totalUsers = userModuleAPI.getTotalUsersCount();
+        long totalUsers = fromProjection ? dashboardProjection.getTotalUsers() : userModuleAPI.getTotalUsersCount();
         double averageBooksPerUser = totalUsers > 0 ? (double) borrowedCopies / totalUsers : 0.0;
         
-        // Set books by category
-        Map<String, Long> booksByCategory = bookModuleAPI.getBookCountByCategory();
-        
         // Popular books (most borrowed)
         List<AnalyticsDashboardDto.PopularBookDto> mostBorrowedBooks = generateMostBorrowedBooks();
         
@@ -107,22 +248,29 @@ public class AnalyticsService implements AnalyticsModuleAPI {
     
     @Override
     public AnalyticsDashboardDto.TransactionAnalyticsDto generateTransactionAnalytics() {
-        long totalTransactions = transactionModuleAPI.getTotalTransactionsCount();
-        long activeTransactions = transactionModuleAPI.getActiveTransactionsCount();
+        boolean fromProjection = useProjection();
+        long totalTransactions = fromProjection ? dashboardProjection.getTotalTransactions() : transactionModuleAPI.getTotalTransactionsCount();
+        long activeTransactions = fromProjection ? dashboardProjection.getActiveTransactions() : transactionModuleAPI.getActiveTransactionsCount();
+        // Overdue depends on the clock rather than on events, so it is always queried
         long overdueTransactions = transactionModuleAPI.getOverdueTransactionsCount();
         
         // Transactions for different periods
-        long transactionsToday = totalTransactions; // For demo, using total
-        long transactionsThisWeek = totalTransactions;
-        YearMonth currentMonth = YearMonth.now();
-        long transactionsThisMonth = transactionModuleAPI.getTransactionsInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+        long transactionsToday = activityHistogram.getBorrowsInLastDays(1);
+        long transactionsThisWeek = activityHistogram.getBorrowsInLastDays(7);
+        long transactionsThisMonth;
+        if (fromProjection) {
+            transactionsThisMonth = dashboardProjection.getTransactionsThisMonth();
+        } else {
+            YearMonth currentMonth = YearMonth.now();
+            transactionsThisMonth = transactionModuleAPI.getTransactionsInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+        }
         
         // Average return time
         double averageReturnTime = transactionModuleAPI.getAverageBorrowingDuration();
         
         // Transactions by type
-        long borrowTransactions = transactionModuleAPI.getBorrowTransactionsCount();
-        long returnTransactions = transactionModuleAPI.getReturnTransactionsCount();
+        long borrowTransactions = fromProjection ? dashboardProjection.getBorrowTransactions() : transactionModuleAPI.getBorrowTransactionsCount();
+        long returnTransactions = fromProjection ? dashboardProjection.getReturnTransactions() : transactionModuleAPI.getReturnTransactionsCount();
         Map<String, Long> transactionsByType = Map.of(
             "BORROW", borrowTransactions,
             "RETURN", returnTransactions,
@@ -141,8 +289,9 @@ public class AnalyticsService implements AnalyticsModuleAPI {
     
     @Override
     public AnalyticsDashboardDto.InventoryAnalyticsDto generateInventoryAnalytics() {
-        long totalCopies = bookModuleAPI.getTotalCopiesCount();
-        long availableCopies = bookModuleAPI.getAvailableCopiesCount();
+        boolean fromProjection = useProjection();
+        long totalCopies = fromProjection ? dashboardProjection.getTotalCopies() : bookModuleAPI.getTotalCopiesCount();
+        long availableCopies = fromProjection ? dashboardProjection.getAvailableCopies() : bookModuleAPI.getAvailableCopiesCount();
         long borrowedCopies = totalCopies - availableCopies;
         double utilizationRate = totalCopies > 0 ? (double) borrowedCopies / totalCopies * 100 : 0;
         
@@ -191,71 +340,29 @@ public class AnalyticsService implements AnalyticsModuleAPI {
         );
     }
     
+    private boolean useProjection() {
+        return projectionEnabled && dashboardProjection.isInitialized();
+    }
+    
+    private long userCountByRole(String role, boolean fromProjection) {
+        return fromProjection ? dashboardProjection.getUserCountByRole(role) : userModuleAPI.getUserCountByRole(role);
+    }
     
     private List<AnalyticsDashboardDto.TopActiveUserDto> generateTopActiveUsers() {
-        // Mock data for top active users
-        List<AnalyticsDashboardDto.TopActiveUserDto> topUsers = new ArrayList<>();
-        
-        // Get users and their transaction counts (simplified)
-        // In a real implementation, you'd query the database for this data
-        topUsers.add(new AnalyticsDashboardDto.TopActiveUserDto("sarah.jones", "sarah.jones@library.com", 10, 0));
-        topUsers.add(new AnalyticsDashboardDto.TopActiveUserDto("alice.smith1", "alice.smith1@email.com", 8, 0));
-        topUsers.add(new AnalyticsDashboardDto.TopActiveUserDto("ian.rodriguez9", "ian.rodriguez9@email.com", 8, 2));
-        topUsers.add(new AnalyticsDashboardDto.TopActiveUserDto("kevin.hernandez11", "kevin.hernandez11@email.com", 8, 0));
-        topUsers.add(new AnalyticsDashboardDto.TopActiveUserDto("hannah.davis8", "hannah.davis8@email.com", 6, 0));
-        
-        return topUsers;
+        return userActivityLeaderboard.getTopActiveUsers(TOP_ACTIVE_USERS_LIMIT);
     }
     
     private List<AnalyticsDashboardDto.PopularBookDto> generateMostBorrowedBooks() {
-        // Mock data for most borrowed books
-        List<AnalyticsDashboardDto.PopularBookDto> mostBorrowed = new ArrayList<>();
-        
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("The Immortal Life of Henrietta Lacks", "Rebecca Skloot", "Science", 10));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("A Game of Thrones", "George R.R. Martin", "Fantasy", 8));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Effective C++", "Scott Meyers", "Programming", 7));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("The Alchemist", "Paulo Coelho", "Fiction", 7));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("The Fault in Our Stars", "John Green", "Romance", 6));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Head First Design Patterns", "Eric Freeman", "Programming", 5));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Oxford History of the World", "J.M. Roberts", "History", 5));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("To Kill a Mockingbird", "Harper Lee", "Fiction", 5));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Harry Potter and the Goblet of Fire", "J.K. Rowling", "Fantasy", 5));
-        mostBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Les Misérables", "Victor Hugo", "Fiction", 5));
-        
-        return mostBorrowed;
+        return bookPopularityRanking.getMostBorrowed(MOST_BORROWED_LIMIT);
     }
     
     private List<AnalyticsDashboardDto.PopularBookDto> generateLeastBorrowedBooks() {
-        // Mock data for least borrowed books
-        List<AnalyticsDashboardDto.PopularBookDto> leastBorrowed = new ArrayList<>();
-        
-        leastBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("To Kill a Mockingbird", "Harper Lee", "Fiction", 0));
-        leastBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("One Hundred Years of Solitude", "Gabriel García Márquez", "Fiction", 0));
-        leastBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Neuromancer", "William Gibson", "Cyberpunk", 0));
-        leastBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("The Way of Kings", "Brandon Sanderson", "Fantasy", 0));
-        leastBorrowed.add(new AnalyticsDashboardDto.PopularBookDto("Divergent", "Veronica Roth", "Young Adult", 0));
-        
-        return leastBorrowed;
+        return bookPopularityRanking.getLeastBorrowed(LEAST_BORROWED_LIMIT);
     }
     
     private List<AnalyticsDashboardDto.RecentActivityDto> generateRecentActivity() {
-        // Generate last 7 days activity
-        List<AnalyticsDashboardDto.RecentActivityDto> activity = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDateTime date = now.minusDays(i);
-            String dateStr = date.toLocalDate().toString();
-            
-            // Mock data - all activity on today for demo
-            if (i == 0) {
-                activity.add(new AnalyticsDashboardDto.RecentActivityDto(dateStr, 85, 57));
-            } else {
-                activity.add(new AnalyticsDashboardDto.RecentActivityDto(dateStr, 0, 0));
-            }
-        }
-        
-        return activity;
+        // Last 7 days, oldest first
+        return activityHistogram.getDailyActivity(RECENT_ACTIVITY_DAYS);
     }
     
     private Map<String, Double> generateCategoryUtilization() {
@@ -0,0 +1,287 @@
+package com.library.analytics;
+
+import com.library.books.BookModuleAPI;
+import com.library.shared.events.BookAddedEvent;
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.CatalogImportedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Most and least borrowed books.
+ * Borrow counts for every book in the catalog are kept in a primitive map fed
+ * by {@link BookAddedEvent}, {@link CatalogImportedEvent} and
+ * {@link BookBorrowedEvent}; each list is selected with a bounded heap and
+ * cached, and later events patch the cached lists in place. A full scan is
+ * only repeated when a listed book may have dropped out. Titles are
+ * resolved in one batch per read, and books that no longer resolve have
+ * been deleted and are dropped.
+ *
+ * The startup build loads outside the lock into a fresh map. Events that
+ * arrive meanwhile are buffered and replayed before it is swapped in;
+ * borrows are replayed by re-reading their counts, since the snapshot may
+ * already include them.
+ */
+@Component
+public class BookPopularityRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(BookPopularityRanking.class);
+
+    private static final Comparator<RankedBook> MOST_BORROWED_FIRST =
+        Comparator.comparingLong(RankedBook::borrowCount).reversed()
+            .thenComparingLong(RankedBook::bookId);
+
+    private static final Comparator<RankedBook> LEAST_BORROWED_FIRST = MOST_BORROWED_FIRST.reversed();
+
+    @Autowired
+    private BookModuleAPI bookModuleAPI;
+
+    @Autowired
+    private TransactionModuleAPI transactionModuleAPI;
+
+    private final Object rebuildLock = new Object();
+    private LongCounterMap borrowCounts = new LongCounterMap(256);
+    private List<Consumer<LongCounterMap>> pendingUpdates = null;
+    private Set<Long> pendingBorrows = null;
+    private final Map<Comparator<RankedBook>, Selection> selections = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload the catalog and the grouped borrow counts
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingUpdates = new ArrayList<>();
+                pendingBorrows = new HashSet<>();
+            }
+
+            LongCounterMap rebuilt;
+            try {
+                List<BookModuleAPI.BookInfo> books = bookModuleAPI.getAllBookInfos();
+                Map<Long, Long> counts = transactionModuleAPI.getBookBorrowCounts();
+                rebuilt = new LongCounterMap(books.size());
+                for (BookModuleAPI.BookInfo book : books) {
+                    rebuilt.put(book.id(), counts.getOrDefault(book.id(), 0L));
+                }
+            } catch (RuntimeException e) {
+                // Keep serving the current counts and apply what was buffered to them
+                swapIn(borrowCounts);
+                throw e;
+            }
+            swapIn(rebuilt);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookAddedEvent event) {
+        apply(counts -> counts.add(event.bookId(), 0), List.of(event.bookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(CatalogImportedEvent event) {
+        // Titles are resolved per read, so only new books change the ranking
+        if (!event.added().isEmpty()) {
+            List<Long> added = event.added().stream().map(CatalogImportedEvent.AddedBook::bookId).toList();
+            apply(counts -> added.forEach(bookId -> counts.add(bookId, 0)), added);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(BookBorrowedEvent event) {
+        if (pendingBorrows != null) {
+            pendingBorrows.add(event.bookId());
+            return;
+        }
+        borrowCounts.add(event.bookId(), 1);
+        refreshSelections(event.bookId());
+    }
+
+    public List<AnalyticsDashboardDto.PopularBookDto> getMostBorrowed(int limit) {
+        return resolve(MOST_BORROWED_FIRST, limit);
+    }
+
+    public List<AnalyticsDashboardDto.PopularBookDto> getLeastBorrowed(int limit) {
+        return resolve(LEAST_BORROWED_FIRST, limit);
+    }
+
+    /**
+     * Select and resolve the books; ids that no longer resolve are forgotten
+     * and the selection is repeated without them
+     */
+    private List<AnalyticsDashboardDto.PopularBookDto> resolve(Comparator<RankedBook> order, int limit) {
+        Set<Long> deleted = new HashSet<>();
+        while (true) {
+            List<RankedBook> ranked = select(order, limit, deleted);
+            Map<Long, BookModuleAPI.BookInfo> books = bookModuleAPI.getBookInfos(
+                ranked.stream().map(RankedBook::bookId).toList());
+
+            List<Long> missing = ranked.stream()
+                .map(RankedBook::bookId)
+                .filter(bookId -> !books.containsKey(bookId))
+                .toList();
+            if (missing.isEmpty()) {
+                return ranked.stream()
+                    .map(book -> {
+                        BookModuleAPI.BookInfo info = books.get(book.bookId());
+                        return new AnalyticsDashboardDto.PopularBookDto(info.title(), info.author(), info.category(),
+                            book.borrowCount());
+                    })
+                    .toList();
+            }
+            deleted.addAll(missing);
+            apply(counts -> missing.forEach(counts::remove), missing);
+        }
+    }
+
+    private synchronized List<RankedBook> select(Comparator<RankedBook> order, int limit, Set<Long> excluded) {
+        Selection cached = selections.get(order);
+        if (excluded.isEmpty() && cached != null && cached.limit() == limit) {
+            return cached.books();
+        }
+
+        PriorityQueue<RankedBook> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        borrowCounts.forEach((bookId, borrowCount) -> {
+            if (excluded.contains(bookId)) {
+                return;
+            }
+            heap.offer(new RankedBook(bookId, borrowCount));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+
+        List<RankedBook> selected = new ArrayList<>(heap);
+        selected.sort(order);
+        List<RankedBook> books = List.copyOf(selected);
+        if (excluded.isEmpty()) {
+            selections.put(order, new Selection(limit, books));
+        }
+        return books;
+    }
+
+    /**
+     * Apply an update to the live counts, or buffer it while a rebuild is loading
+     */
+    private synchronized void apply(Consumer<LongCounterMap> update, Collection<Long> bookIds) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        } else {
+            update.accept(borrowCounts);
+            bookIds.forEach(this::refreshSelections);
+        }
+    }
+
+    /**
+     * Patch the cached lists after the book's count changed or it was
+     * removed. A book that moves up, or an unlisted book that passes the last
+     * entry, is placed directly; a listed book that moves down or is removed
+     * may have to give way to an unlisted one, so that list is dropped and
+     * selected again on the next read.
+     */
+    private void refreshSelections(long bookId) {
+        boolean present = borrowCounts.containsKey(bookId);
+        RankedBook updated = new RankedBook(bookId, borrowCounts.get(bookId));
+        selections.entrySet().removeIf(entry -> {
+            Comparator<RankedBook> order = entry.getKey();
+            Selection selection = entry.getValue();
+            List<RankedBook> books = new ArrayList<>(selection.books());
+            RankedBook previous = books.stream().filter(book -> book.bookId() == bookId).findFirst().orElse(null);
+            boolean complete = books.size() < selection.limit();
+
+            if (previous != null) {
+                if (!complete && (!present || order.compare(updated, previous) > 0)) {
+                    return true;
+                }
+                books.remove(previous);
+            } else if (!present || !complete && (books.isEmpty()
+                    || order.compare(updated, books.get(books.size() - 1)) >= 0)) {
+                return false;
+            }
+
+            if (present) {
+                books.add(updated);
+            }
+            books.sort(order);
+            if (books.size() > selection.limit()) {
+                books.remove(books.size() - 1);
+            }
+            entry.setValue(new Selection(selection.limit(), List.copyOf(books)));
+            return false;
+        });
+    }
+
+    /**
+     * Replay buffered updates onto the new counts and make them live. Borrow
+     * counts are re-read outside the lock and applied under it, until no
+     * more borrows arrive.
+     */
+    private void swapIn(LongCounterMap rebuilt) {
+        Map<Long, Long> recounted = Map.of();
+        while (true) {
+            Set<Long> borrowedIds;
+            synchronized (this) {
+                recounted.forEach(rebuilt::put);
+                pendingUpdates.forEach(update -> update.accept(rebuilt));
+                pendingUpdates.clear();
+                if (pendingBorrows.isEmpty()) {
+                    pendingUpdates = null;
+                    pendingBorrows = null;
+                    borrowCounts = rebuilt;
+                    selections.clear();
+                    return;
+                }
+                borrowedIds = pendingBorrows;
+                pendingBorrows = new HashSet<>();
+            }
+            recounted = recount(rebuilt, borrowedIds);
+        }
+    }
+
+    /**
+     * Current borrow counts of the books; if they cannot be read, each
+     * buffered borrow is counted once on top of the snapshot instead
+     */
+    private Map<Long, Long> recount(LongCounterMap rebuilt, Set<Long> bookIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        try {
+            Map<Long, Long> current = transactionModuleAPI.getBookBorrowCounts(bookIds);
+            for (Long bookId : bookIds) {
+                counts.put(bookId, current.getOrDefault(bookId, 0L));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not re-read borrow counts during rebuild, counting the buffered borrows instead", e);
+            synchronized (this) {
+                for (Long bookId : bookIds) {
+                    counts.put(bookId, rebuilt.get(bookId) + 1);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private record RankedBook(long bookId, long borrowCount) {}
+
+    private record Selection(int limit, List<RankedBook> books) {}
+}
@@ -0,0 +1,380 @@
+package com.library.analytics;
+
+import com.library.books.BookModuleAPI;
+import com.library.shared.events.BookAddedEvent;
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.BookReturnedEvent;
+import com.library.shared.events.CatalogImportedEvent;
+import com.library.shared.events.UserRegisteredEvent;
+import com.library.transactions.TransactionModuleAPI;
+import com.library.users.UserModuleAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory projection of the dashboard counters.
+ * Seeded from the module APIs at startup (or on demand) and then kept current
+ * by the shared domain events, so the dashboard can be read without querying
+ * every module on each request.
+ *
+ * Changes that do not publish events (book edits and deletes, role changes)
+ * are picked up by a full reload every
+ * {@code analytics.projection.reconcile-interval-ms}.
+ *
+ * A reload reads the counters outside the lock while the current values keep
+ * being served. Events that arrive meanwhile are buffered per counter group,
+ * and those groups are read again before the new values are applied, since
+ * the first read may already include them. After {@value #MAX_RELOAD_PASSES}
+ * passes the remaining events are applied as deltas and the next reconcile
+ * corrects any overlap.
+ */
+@Component
+public class DashboardProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardProjection.class);
+
+    static final int MAX_RELOAD_PASSES = 3;
+
+    private enum Group { USERS, BOOKS, TRANSACTIONS }
+
+    @Autowired
+    private UserModuleAPI userModuleAPI;
+
+    @Autowired
+    private BookModuleAPI bookModuleAPI;
+
+    @Autowired
+    private TransactionModuleAPI transactionModuleAPI;
+
+    private volatile boolean initialized = false;
+    private volatile long lastRebuiltAt = 0;
+
+    private final Object rebuildLock = new Object();
+    private Map<Group, List<Runnable>> pendingUpdates = null;
+
+    // Users
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final Map<String, LongAdder> usersByRole = new ConcurrentHashMap<>();
+    private final MonthlyCounter newUsers = new MonthlyCounter();
+
+    // Books and inventory
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong totalCopies = new AtomicLong();
+    private final AtomicLong availableCopies = new AtomicLong();
+    private final Map<String, LongAdder> booksByCategory = new ConcurrentHashMap<>();
+
+    // Transactions
+    private final AtomicLong totalTransactions = new AtomicLong();
+    private final AtomicLong activeTransactions = new AtomicLong();
+    private final AtomicLong completedTransactions = new AtomicLong();
+    private final AtomicLong borrowTransactions = new AtomicLong();
+    private final AtomicLong returnTransactions = new AtomicLong();
+    private final MonthlyCounter monthlyTransactions = new MonthlyCounter();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${analytics.projection.reconcile-interval-ms:300000}",
+               fixedDelayString = "${analytics.projection.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Dashboard projection reconcile failed, keeping the current counters", e);
+        }
+    }
+
+    /**
+     * Reload every counter from the owning modules
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long startTime = System.currentTimeMillis();
+            synchronized (this) {
+                pendingUpdates = new EnumMap<>(Group.class);
+            }
+
+            Runnable loaded;
+            try {
+                loaded = load(EnumSet.allOf(Group.class));
+            } catch (RuntimeException e) {
+                // Keep serving the current counters and bring the buffered groups up to date
+                swapIn(null);
+                throw e;
+            }
+            swapIn(loaded);
+
+            lastRebuiltAt = System.currentTimeMillis();
+            initialized = true;
+            log.info("Dashboard projection rebuilt in {} ms", lastRebuiltAt - startTime);
+        }
+    }
+
+    // Event handlers
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserRegisteredEvent event) {
+        update(Group.USERS, () -> {
+            totalUsers.incrementAndGet();
+            adder(usersByRole, event.role()).increment();
+            newUsers.increment(monthOf(event.timestamp()));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookAddedEvent event) {
+        update(Group.BOOKS, () -> {
+            totalBooks.incrementAndGet();
+            totalCopies.addAndGet(event.totalCopies());
+            availableCopies.addAndGet(event.totalCopies());
+            adder(booksByCategory, event.category()).increment();
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(CatalogImportedEvent event) {
+        update(Group.BOOKS, () -> {
+            for (CatalogImportedEvent.AddedBook book : event.added()) {
+                totalBooks.incrementAndGet();
+                totalCopies.addAndGet(book.totalCopies());
+                availableCopies.addAndGet(book.totalCopies());
+                adder(booksByCategory, book.category()).increment();
+            }
+            for (CatalogImportedEvent.UpdatedBook book : event.updated()) {
+                totalCopies.addAndGet(book.totalCopiesDelta());
+                availableCopies.addAndGet(book.availableCopiesDelta());
+                if (!book.category().equals(book.previousCategory())) {
+                    adder(booksByCategory, book.previousCategory()).decrement();
+                    adder(booksByCategory, book.category()).increment();
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookBorrowedEvent event) {
+        update(Group.TRANSACTIONS, () -> {
+            totalTransactions.incrementAndGet();
+            activeTransactions.incrementAndGet();
+            borrowTransactions.incrementAndGet();
+            monthlyTransactions.increment(monthOf(event.timestamp()));
+        });
+        update(Group.BOOKS, availableCopies::decrementAndGet);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(BookReturnedEvent event) {
+        update(Group.TRANSACTIONS, () -> {
+            activeTransactions.decrementAndGet();
+            completedTransactions.incrementAndGet();
+        });
+        update(Group.BOOKS, availableCopies::incrementAndGet);
+    }
+
+    /**
+     * Apply an update to the live counters, or buffer it while a reload is reading its group
+     */
+    private synchronized void update(Group group, Runnable update) {
+        if (pendingUpdates != null) {
+            pendingUpdates.computeIfAbsent(group, g -> new ArrayList<>()).add(update);
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Apply the loaded values, then read the groups that received events
+     * again, until a pass sees no events or the pass limit is reached
+     */
+    private void swapIn(Runnable loaded) {
+        Runnable apply = loaded;
+        for (int pass = 1; ; pass++) {
+            Map<Group, List<Runnable>> buffered;
+            synchronized (this) {
+                if (apply != null) {
+                    apply.run();
+                }
+                if (pendingUpdates.isEmpty()) {
+                    pendingUpdates = null;
+                    return;
+                }
+                buffered = pendingUpdates;
+                if (pass > MAX_RELOAD_PASSES) {
+                    log.warn("Dashboard projection still receiving events after {} reload passes, applying them as deltas",
+                        MAX_RELOAD_PASSES);
+                    buffered.values().forEach(updates -> updates.forEach(Runnable::run));
+                    pendingUpdates = null;
+                    return;
+                }
+                pendingUpdates = new EnumMap<>(Group.class);
+            }
+            apply = reload(buffered);
+        }
+    }
+
+    /**
+     * Read the groups again; a group that cannot be read gets its buffered
+     * events applied as deltas instead
+     */
+    private Runnable reload(Map<Group, List<Runnable>> buffered) {
+        List<Runnable> applies = new ArrayList<>();
+        buffered.forEach((group, updates) -> {
+            try {
+                applies.add(load(EnumSet.of(group)));
+            } catch (RuntimeException e) {
+                log.warn("Could not reload {} counters, applying the buffered events instead", group, e);
+                applies.addAll(updates);
+            }
+        });
+        return () -> applies.forEach(Runnable::run);
+    }
+
+    /**
+     * Read the groups' counters from the owning modules; the returned action
+     * sets them and must run under the lock
+     */
+    private Runnable load(Set<Group> groups) {
+        YearMonth currentMonth = YearMonth.now();
+        List<Runnable> applies = new ArrayList<>();
+
+        if (groups.contains(Group.USERS)) {
+            long users = userModuleAPI.getTotalUsersCount();
+            Map<String, Long> byRole = new HashMap<>();
+            for (String role : new String[] {"ADMIN", "LIBRARIAN", "USER"}) {
+                byRole.put(role, userModuleAPI.getUserCountByRole(role));
+            }
+            long usersThisMonth = userModuleAPI.getUsersCreatedInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+            applies.add(() -> {
+                totalUsers.set(users);
+                usersByRole.clear();
+                byRole.forEach((role, count) -> adder(usersByRole, role).add(count));
+                newUsers.reset(currentMonth, usersThisMonth);
+            });
+        }
+
+        if (groups.contains(Group.BOOKS)) {
+            BookModuleAPI.InventorySummary inventory = bookModuleAPI.getInventorySummary();
+            applies.add(() -> {
+                totalBooks.set(inventory.totalBooks());
+                totalCopies.set(inventory.totalCopies());
+                availableCopies.set(inventory.availableCopies());
+                booksByCategory.clear();
+                inventory.booksByCategory().forEach((category, count) -> adder(booksByCategory, category).add(count));
+            });
+        }
+
+        if (groups.contains(Group.TRANSACTIONS)) {
+            long total = transactionModuleAPI.getTotalTransactionsCount();
+            long active = transactionModuleAPI.getActiveTransactionsCount();
+            long completed = transactionModuleAPI.getCompletedTransactionsCount();
+            long borrows = transactionModuleAPI.getBorrowTransactionsCount();
+            long returns = transactionModuleAPI.getReturnTransactionsCount();
+            long thisMonth = transactionModuleAPI.getTransactionsInMonth(currentMonth.getYear(), currentMonth.getMonthValue());
+            applies.add(() -> {
+                totalTransactions.set(total);
+                activeTransactions.set(active);
+                completedTransactions.set(completed);
+                borrowTransactions.set(borrows);
+                returnTransactions.set(returns);
+                monthlyTransactions.reset(currentMonth, thisMonth);
+            });
+        }
+
+        return () -> applies.forEach(Runnable::run);
+    }
+
+    // Accessors
+    public boolean isInitialized() { return initialized; }
+
+    public long getLastRebuiltAt() { return lastRebuiltAt; }
+
+    public long getTotalUsers() { return totalUsers.get(); }
+
+    public long getUserCountByRole(String role) {
+        LongAdder count = usersByRole.get(role);
+        return count != null ? count.sum() : 0;
+    }
+
+    public long getNewUsersThisMonth() { return newUsers.get(YearMonth.now()); }
+
+    public long getTotalBooks() { return totalBooks.get(); }
+
+    public long getTotalCopies() { return totalCopies.get(); }
+
+    public long getAvailableCopies() { return availableCopies.get(); }
+
+    public Map<String, Long> getBooksByCategory() {
+        Map<String, Long> result = new HashMap<>();
+        booksByCategory.forEach((category, count) -> result.put(category, count.sum()));
+        return result;
+    }
+
+    public long getTotalTransactions() { return totalTransactions.get(); }
+
+    public long getActiveTransactions() { return activeTransactions.get(); }
+
+    public long getCompletedTransactions() { return completedTransactions.get(); }
+
+    public long getBorrowTransactions() { return borrowTransactions.get(); }
+
+    public long getReturnTransactions() { return returnTransactions.get(); }
+
+    public long getTransactionsThisMonth() { return monthlyTransactions.get(YearMonth.now()); }
+
+    private static LongAdder adder(Map<String, LongAdder> map, String key) {
+        return map.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static YearMonth monthOf(long epochMillis) {
+        return YearMonth.from(Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * Counter that only remembers the current calendar month and starts over
+     * when an event from a later month arrives.
+     */
+    private static class MonthlyCounter {
+        private YearMonth month = YearMonth.now();
+        private long count;
+
+        synchronized void reset(YearMonth month, long count) {
+            this.month = month;
+            this.count = count;
+        }
+
+        synchronized void increment(YearMonth eventMonth) {
+            if (eventMonth.isAfter(month)) {
+                month = eventMonth;
+                count = 0;
+            }
+            if (eventMonth.equals(month)) {
+                count++;
+            }
+        }
+
+        synchronized long get(YearMonth currentMonth) {
+            return currentMonth.equals(month) ? count : 0;
+        }
+    }
+}
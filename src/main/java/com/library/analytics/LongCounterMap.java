@@ -0,0 +1,149 @@
+package com.library.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to long counters.
+ * Avoids boxing a Long key and value per entry for per-user statistics.
+ * Not thread-safe; callers synchronize externally.
+ */
+class LongCounterMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    LongCounterMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    long get(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    boolean containsKey(long key) {
+        return keys[find(key)] == key;
+    }
+
+    long add(long key, long delta) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            size++;
+            if (size * 2 > keys.length) {
+                values[slot] = delta;
+                resize();
+                return delta;
+            }
+        }
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    void put(long key, long value) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            if (size * 2 > keys.length) {
+                resize();
+            }
+            return;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Remove the key, shifting later entries of its probe run back into the gap
+     */
+    void remove(long key) {
+        int slot = find(key);
+        if (keys[slot] != key) {
+            return;
+        }
+        size--;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry only when the hole lies between its home slot and where it sits
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private int find(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Unsupported key: " + key);
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,246 @@
+package com.library.analytics;
+
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.BookReturnedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import com.library.users.UserModuleAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Users ranked by number of borrows.
+ * Per-user borrow and active loan counts are kept in primitive maps fed by
+ * {@link BookBorrowedEvent} and {@link BookReturnedEvent}; the top users are
+ * selected with a bounded heap and the cached list is updated in place by
+ * later events. Names and overdue counts are resolved in one batch per read.
+ *
+ * The startup build loads outside the lock into fresh maps. Users whose
+ * loans change meanwhile are buffered and their counts re-read before the
+ * maps are swapped in, since the snapshot may already include the change.
+ */
+@Component
+public class UserActivityLeaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityLeaderboard.class);
+
+    private static final Comparator<RankedUser> LEAST_ACTIVE_FIRST =
+        Comparator.comparingLong(RankedUser::borrowCount)
+            .thenComparing(Comparator.comparingLong(RankedUser::userId).reversed());
+
+    @Autowired
+    private UserModuleAPI userModuleAPI;
+
+    @Autowired
+    private TransactionModuleAPI transactionModuleAPI;
+
+    private final Object rebuildLock = new Object();
+    private volatile boolean initialized = false;
+    private Activity activity = new Activity(256);
+    // Borrows and returns per user seen while a rebuild is loading
+    private Map<Long, long[]> pendingUsers = null;
+    private List<RankedUser> cachedTop = null;
+    private int cachedLimit = 0;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload per-user counts from the grouped transaction statistics
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingUsers = new HashMap<>();
+            }
+
+            Activity rebuilt;
+            try {
+                List<TransactionModuleAPI.UserActivity> rows = transactionModuleAPI.getUserActivity();
+                rebuilt = new Activity(rows.size());
+                rows.forEach(rebuilt::set);
+            } catch (RuntimeException e) {
+                // Keep serving the current counts and bring the buffered users up to date
+                swapIn(activity);
+                throw e;
+            }
+            swapIn(rebuilt);
+            initialized = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(BookBorrowedEvent event) {
+        if (pendingUsers != null) {
+            pendingUsers.computeIfAbsent(event.userId(), userId -> new long[2])[0]++;
+            return;
+        }
+        activity.borrowCounts.add(event.userId(), 1);
+        activity.activeCounts.add(event.userId(), 1);
+        refreshCachedTop(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void on(BookReturnedEvent event) {
+        if (pendingUsers != null) {
+            pendingUsers.computeIfAbsent(event.userId(), userId -> new long[2])[1]++;
+            return;
+        }
+        if (activity.activeCounts.get(event.userId()) > 0) {
+            activity.activeCounts.add(event.userId(), -1);
+        }
+        refreshCachedTop(event.userId());
+    }
+
+    public List<AnalyticsDashboardDto.TopActiveUserDto> getTopActiveUsers(int limit) {
+        if (!initialized) {
+            rebuild();
+        }
+        List<RankedUser> top = selectTop(limit);
+        List<Long> userIds = top.stream().map(RankedUser::userId).toList();
+
+        Map<Long, UserModuleAPI.UserInfo> users = userModuleAPI.getUserInfos(userIds);
+        Map<Long, Long> overdueCounts = transactionModuleAPI.getOverdueCountsByUser(userIds);
+
+        List<AnalyticsDashboardDto.TopActiveUserDto> result = new ArrayList<>(top.size());
+        for (RankedUser ranked : top) {
+            UserModuleAPI.UserInfo user = users.get(ranked.userId());
+            if (user == null) {
+                continue;
+            }
+            result.add(new AnalyticsDashboardDto.TopActiveUserDto(
+                user.username(),
+                user.email(),
+                ranked.borrowCount(),
+                ranked.activeCount(),
+                overdueCounts.getOrDefault(ranked.userId(), 0L)
+            ));
+        }
+        return result;
+    }
+
+    private synchronized List<RankedUser> selectTop(int limit) {
+        if (cachedTop != null && cachedLimit == limit) {
+            return cachedTop;
+        }
+
+        PriorityQueue<RankedUser> heap = new PriorityQueue<>(limit + 1, LEAST_ACTIVE_FIRST);
+        activity.borrowCounts.forEach((userId, borrowCount) -> {
+            if (borrowCount <= 0) {
+                return;
+            }
+            heap.offer(new RankedUser(userId, borrowCount, activity.activeCounts.get(userId)));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+
+        List<RankedUser> top = new ArrayList<>(heap);
+        top.sort(LEAST_ACTIVE_FIRST.reversed());
+        cachedTop = List.copyOf(top);
+        cachedLimit = limit;
+        return cachedTop;
+    }
+
+    /**
+     * Bring the cached top list up to date after the user's counts changed.
+     * Borrow counts only grow between rebuilds, so a listed user stays listed
+     * and an unlisted one enters only by passing the last entry.
+     */
+    private void refreshCachedTop(long userId) {
+        if (cachedTop == null) {
+            return;
+        }
+        RankedUser updated = new RankedUser(userId, activity.borrowCounts.get(userId),
+            activity.activeCounts.get(userId));
+        List<RankedUser> top = new ArrayList<>(cachedTop);
+        boolean listed = top.removeIf(ranked -> ranked.userId() == userId);
+        if (!listed && (updated.borrowCount() <= 0 || top.size() == cachedLimit
+                && (top.isEmpty() || LEAST_ACTIVE_FIRST.compare(updated, top.get(top.size() - 1)) <= 0))) {
+            return;
+        }
+        top.add(updated);
+        top.sort(LEAST_ACTIVE_FIRST.reversed());
+        if (top.size() > cachedLimit) {
+            top.remove(top.size() - 1);
+        }
+        cachedTop = List.copyOf(top);
+    }
+
+    /**
+     * Re-read the buffered users onto the new counts and make them live,
+     * until no more loans change
+     */
+    private void swapIn(Activity rebuilt) {
+        List<TransactionModuleAPI.UserActivity> recounted = List.of();
+        while (true) {
+            Map<Long, long[]> changed;
+            synchronized (this) {
+                recounted.forEach(rebuilt::set);
+                if (pendingUsers.isEmpty()) {
+                    pendingUsers = null;
+                    activity = rebuilt;
+                    cachedTop = null;
+                    return;
+                }
+                changed = pendingUsers;
+                pendingUsers = new HashMap<>();
+            }
+            recounted = recount(rebuilt, changed);
+        }
+    }
+
+    /**
+     * Current counts of the users; if they cannot be read, the buffered
+     * borrows and returns are applied on top of the snapshot instead
+     */
+    private List<TransactionModuleAPI.UserActivity> recount(Activity rebuilt, Map<Long, long[]> changed) {
+        List<TransactionModuleAPI.UserActivity> counts = new ArrayList<>(changed.size());
+        try {
+            Map<Long, TransactionModuleAPI.UserActivity> current = new HashMap<>();
+            transactionModuleAPI.getUserActivity(changed.keySet())
+                .forEach(row -> current.put(row.userId(), row));
+            for (Long userId : changed.keySet()) {
+                counts.add(current.getOrDefault(userId, new TransactionModuleAPI.UserActivity(userId, 0, 0)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not re-read user activity during rebuild, applying the buffered loans instead", e);
+            synchronized (this) {
+                changed.forEach((userId, loans) -> counts.add(new TransactionModuleAPI.UserActivity(userId,
+                    rebuilt.borrowCounts.get(userId) + loans[0],
+                    Math.max(0, rebuilt.activeCounts.get(userId) + loans[0] - loans[1]))));
+            }
+        }
+        return counts;
+    }
+
+    private record RankedUser(long userId, long borrowCount, long activeCount) {}
+
+    private static final class Activity {
+        final LongCounterMap borrowCounts;
+        final LongCounterMap activeCounts;
+
+        Activity(int expectedSize) {
+            borrowCounts = new LongCounterMap(expectedSize);
+            activeCounts = new LongCounterMap(expectedSize);
+        }
+
+        void set(TransactionModuleAPI.UserActivity row) {
+            borrowCounts.put(row.userId(), row.borrowCount());
+            activeCounts.put(row.userId(), row.activeCount());
+        }
+    }
+}
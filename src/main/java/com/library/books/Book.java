@@ -1,6 +1,11 @@
 package com.library.books;
 
+import com.library.shared.persistence.PooledSequenceGenerator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -9,11 +14,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = @Index(name = "idx_books_created_at_id", columnList = "created_at, id"))
 public class Book {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @GenericGenerator(name = "books_seq", type = PooledSequenceGenerator.class,
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "books_seq"))
     private Long id;
     
     @NotBlank(message = "ISBN is required")
@@ -52,6 +59,16 @@ public class Book {
     @Enumerated(EnumType.STRING)
     private BookStatus status = BookStatus.AVAILABLE;
     
+    // Written only by the borrow UPDATE so entity saves never overwrite it
+    @ColumnDefault("0")
+    @Column(name = "borrow_count", nullable = false, insertable = false, updatable = false)
+    private long borrowCount;
+    
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -226,6 +243,18 @@ public class Book {
         this.status = status;
     }
     
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
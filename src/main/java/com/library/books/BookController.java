@@ -1,12 +1,18 @@
 package com.library.books;
 
+import com.library.shared.paging.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/books")
@@ -15,11 +21,18 @@ public class BookController {
     
     @Autowired
     private BookService bookService;
+    
+    @Autowired
+    private CatalogImportService catalogImportService;
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = bookService.getAllBooks();
-        return ResponseEntity.ok(books);
+    public ResponseEntity<KeysetPage<Book>> getAllBooks(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(bookService.getBooksPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -43,9 +56,16 @@ public class BookController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String keyword) {
-        List<Book> books = bookService.searchBooks(keyword);
-        return ResponseEntity.ok(books);
+    public ResponseEntity<BookSearchPage> searchBooks(@RequestParam String keyword,
+                                                      @RequestParam(required = false) Integer page,
+                                                      @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(bookService.searchBooks(keyword, page, size));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestion>> suggestBooks(@RequestParam String q,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookService.suggestBooks(q, limit));
     }
 
     @GetMapping("/available")
@@ -71,12 +91,43 @@ public class BookController {
         }
     }
 
+    /**
+     * Queue a CSV catalog for import; poll the returned import id for progress.
+     * Requires isbn, title, author, category and totalCopies columns.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<CatalogImportStatus> importCatalog(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogImportService.submit(file));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/import/{importId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<CatalogImportStatus> getImportStatus(@PathVariable String importId) {
+        return catalogImportService.getStatus(importId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
         return bookService.getBookByIdOptional(id)
             .map(existingBook -> {
                 book.setId(id);
+                if (book.getVersion() == null) {
+                    // Clients that don't send a version overwrite the current state
+                    book.setVersion(existingBook.getVersion());
+                }
                 Book updatedBook = bookService.saveBook(book);
                 return ResponseEntity.ok(updatedBook);
             })
@@ -1,5 +1,7 @@
 package com.library.books;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +34,28 @@ public interface BookModuleAPI {
         long borrowCount
     ) {}
     
+    record InventorySummary(
+        long totalBooks,
+        long totalCopies,
+        long availableCopies,
+        long borrowedCopies,
+        long outOfStockBooks,
+        long lowStockBooks,
+        Map<String, CategoryInventory> categories
+    ) {
+        public Map<String, Long> booksByCategory() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            categories.forEach((category, inventory) -> result.put(category, inventory.books()));
+            return result;
+        }
+    }
+    
+    record CategoryInventory(
+        long books,
+        long totalCopies,
+        long availableCopies
+    ) {}
+    
     record BookInfo(
         Long id,
         String isbn,
@@ -48,25 +72,40 @@ public interface BookModuleAPI {
      */
     BookAnalytics getBookAnalytics();
     
+    /**
+     * Get book, copy and stock totals plus per-category counts in one grouped scan
+     */
+    InventorySummary getInventorySummary();
+    
     /**
      * Get book information by ID
      */
     BookInfo getBookInfo(Long bookId);
     
+    /**
+     * Get book information for several books in one query, keyed by book ID
+     */
+    Map<Long, BookInfo> getBookInfos(Collection<Long> bookIds);
+    
+    /**
+     * Get information for every book in the catalog
+     */
+    List<BookInfo> getAllBookInfos();
+    
     /**
      * Check if book exists and is available
      */
     boolean isBookAvailable(Long bookId);
     
     /**
-     * Borrow a copy of the book (decrements available count)
+     * Borrow a copy of the book (decrements available count) and return the updated book information
      */
-    void borrowBook(Long bookId);
+    BookInfo borrowBook(Long bookId);
     
     /**
-     * Return a copy of the book (increments available count)
+     * Return a copy of the book (increments available count) and return the updated book information
      */
-    void returnBook(Long bookId);
+    BookInfo returnBook(Long bookId);
     
     /**
      * Get total book count
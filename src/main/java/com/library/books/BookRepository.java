@@ -1,11 +1,14 @@
 package com.library.books;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,15 +17,14 @@ interface BookRepository extends JpaRepository<Book, Long> {
     
     Optional<Book> findByIsbn(String isbn);
     
+    List<Book> findByIsbnIn(Collection<String> isbns);
+    
     List<Book> findByCategory(String category);
     
     List<Book> findByAuthorContainingIgnoreCase(String author);
     
     List<Book> findByTitleContainingIgnoreCase(String title);
     
-    @Query("SELECT b FROM Book b WHERE b.title LIKE %:keyword% OR b.author LIKE %:keyword% OR b.isbn LIKE %:keyword%")
-    List<Book> findByKeyword(@Param("keyword") String keyword);
-    
     List<Book> findByStatus(Book.BookStatus status);
     
     List<Book> findByAvailableCopiesGreaterThan(int copies);
@@ -50,4 +52,107 @@ interface BookRepository extends JpaRepository<Book, Long> {
     
     @Query("SELECT b FROM Book b WHERE b.createdAt >= :date ORDER BY b.createdAt DESC")
     List<Book> findBooksAddedAfter(@Param("date") LocalDateTime date);
+    
+    @Query("SELECT b.category AS category, COUNT(b) AS bookCount, " +
+           "SUM(b.totalCopies) AS totalCopies, SUM(b.availableCopies) AS availableCopies, " +
+           "SUM(CASE WHEN b.availableCopies = 0 THEN 1 ELSE 0 END) AS outOfStockBooks, " +
+           "SUM(CASE WHEN b.availableCopies > 0 AND b.availableCopies <= :lowStockThreshold THEN 1 ELSE 0 END) AS lowStockBooks " +
+           "FROM Book b GROUP BY b.category ORDER BY b.category")
+    List<CategoryInventoryView> summarizeInventoryByCategory(@Param("lowStockThreshold") int lowStockThreshold);
+    
+    /**
+     * Take one copy if the book is available, marking it out of stock when the
+     * last copy goes, and count the borrow. Returns the number of rows updated (0 or 1).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, " +
+           "b.status = CASE WHEN b.availableCopies = 1 THEN :outOfStock ELSE b.status END, " +
+           "b.borrowCount = b.borrowCount + 1, b.updatedAt = :now, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.availableCopies > 0 AND b.status = :available")
+    int borrowCopy(@Param("id") Long id,
+                   @Param("available") Book.BookStatus available,
+                   @Param("outOfStock") Book.BookStatus outOfStock,
+                   @Param("now") LocalDateTime now);
+    
+    /**
+     * Put one copy back unless all copies are already in, making an out of
+     * stock book available again. Returns the number of rows updated (0 or 1).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, " +
+           "b.status = CASE WHEN b.status = :outOfStock THEN :available ELSE b.status END, " +
+           "b.updatedAt = :now, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.availableCopies < b.totalCopies")
+    int returnCopy(@Param("id") Long id,
+                   @Param("available") Book.BookStatus available,
+                   @Param("outOfStock") Book.BookStatus outOfStock,
+                   @Param("now") LocalDateTime now);
+    
+    @Query("SELECT b FROM Book b ORDER BY b.createdAt DESC NULLS LAST, b.id DESC")
+    List<Book> findFirstPage(Pageable pageable);
+    
+    /**
+     * Rows strictly after a dated cursor in {@code createdAt DESC NULLS LAST, id DESC} order
+     */
+    @Query("SELECT b FROM Book b WHERE b.createdAt < :createdAt " +
+           "OR (b.createdAt = :createdAt AND b.id < :id) OR b.createdAt IS NULL " +
+           "ORDER BY b.createdAt DESC NULLS LAST, b.id DESC")
+    List<Book> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Rows after a cursor on an undated row; those sort last, by id
+     */
+    @Query("SELECT b FROM Book b WHERE b.createdAt IS NULL AND b.id < :id ORDER BY b.id DESC")
+    List<Book> findUndatedPageAfter(@Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Text columns of every book, for building the search index
+     */
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.isbn AS isbn, " +
+           "b.category AS category, b.description AS description FROM Book b")
+    List<SearchableBookView> findAllSearchable();
+    
+    /**
+     * Titles, authors and borrow counts of every book, for building the suggest index
+     */
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.borrowCount AS borrowCount FROM Book b")
+    List<SuggestableBookView> findAllSuggestable();
+    
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.borrowCount AS borrowCount " +
+           "FROM Book b WHERE b.id IN :ids")
+    List<SuggestableBookView> findSuggestableByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Per-category aggregate row returned by {@link #summarizeInventoryByCategory(int)}
+     */
+    interface CategoryInventoryView {
+        String getCategory();
+        Long getBookCount();
+        Long getTotalCopies();
+        Long getAvailableCopies();
+        Long getOutOfStockBooks();
+        Long getLowStockBooks();
+    }
+    
+    /**
+     * Indexed text of one book returned by {@link #findAllSearchable()}
+     */
+    interface SearchableBookView {
+        Long getId();
+        String getTitle();
+        String getAuthor();
+        String getIsbn();
+        String getCategory();
+        String getDescription();
+    }
+    
+    /**
+     * Suggestion source row returned by {@link #findAllSuggestable()}
+     */
+    interface SuggestableBookView {
+        Long getId();
+        String getTitle();
+        String getAuthor();
+        Long getBorrowCount();
+    }
 }
@@ -0,0 +1,312 @@
+package com.library.books;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book title, author, ISBN, category and
+ * description. Built once on startup and kept current after commit by book
+ * saves, deletes and catalog imports.
+ *
+ * Every query term must match a book. A term matches its exact token and,
+ * with a lower score, every token it is a prefix of. Matches are ranked by
+ * field weight, term frequency and inverse document frequency.
+ *
+ * The startup build runs outside the lock into a fresh index; updates that
+ * commit meanwhile are buffered and replayed on it before it is swapped in.
+ * Until then searches see an empty index rather than scanning the table.
+ */
+@Component
+class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float AUTHOR_WEIGHT = 2.5f;
+    private static final float ISBN_WEIGHT = 5.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float PREFIX_MATCH_FACTOR = 0.6f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final Comparator<Map.Entry<Long, Float>> LOWEST_SCORE_FIRST =
+        Map.Entry.<Long, Float>comparingByValue()
+            .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings index = new Postings();
+    private List<Consumer<Postings>> pendingUpdates = null;
+
+    /**
+     * Ranked ids for one page of matches, plus the total number of matches
+     */
+    record Hits(List<Long> bookIds, int total) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Re-index the whole catalog from its text columns
+     */
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings rebuilt = new Postings();
+        List<BookRepository.SearchableBookView> books;
+        try {
+            books = bookRepository.findAllSearchable();
+            for (BookRepository.SearchableBookView book : books) {
+                rebuilt.add(new Document(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                    book.getCategory(), book.getDescription()));
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current index and apply what was buffered to it
+            swapIn(index);
+            throw e;
+        }
+        swapIn(rebuilt);
+        log.info("Book search index built: {} books, {} terms in {} ms",
+            books.size(), rebuilt.termCount(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Index the book's current text once the surrounding transaction commits
+     */
+    void indexAfterCommit(Book book) {
+        Document document = new Document(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+            book.getCategory(), book.getDescription());
+        afterCommit(() -> apply(postings -> postings.add(document)));
+    }
+
+    void removeAfterCommit(Long bookId) {
+        afterCommit(() -> apply(postings -> postings.remove(bookId)));
+    }
+
+    Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String term : terms) {
+                Map<Long, Float> termScores = index.scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + termScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+            return new Hits(topRanked(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased, accent-free letter and digit runs
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Ids ranked by score, then id, keeping only the first {@code offset + limit} in a bounded heap
+     */
+    static List<Long> topRanked(Map<Long, Float> scores, int offset, int limit) {
+        if (offset >= scores.size()) {
+            return List.of();
+        }
+        int keep = offset + limit;
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(Math.min(keep, scores.size()) + 1, LOWEST_SCORE_FIRST);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > keep) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(heap);
+        ranked.sort(LOWEST_SCORE_FIRST.reversed());
+        return ranked.subList(offset, ranked.size()).stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Apply an update to the live index, or buffer it while a rebuild is loading
+     */
+    private void apply(Consumer<Postings> update) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            } else {
+                update.accept(index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void swapIn(Postings rebuilt) {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates.forEach(update -> update.accept(rebuilt));
+            pendingUpdates = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Run after the current transaction commits, or right away outside one
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Document(Long id, String title, String author, String isbn, String category, String description) {}
+
+    /**
+     * Term postings with per-book weights, plus each book's terms for removal
+     */
+    private static class Postings {
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<Long, String[]> termsByBook = new HashMap<>();
+
+        int termCount() {
+            return postings.size();
+        }
+
+        void add(Document document) {
+            remove(document.id());
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, tokenize(document.title()), TITLE_WEIGHT);
+            addField(weights, tokenize(document.author()), AUTHOR_WEIGHT);
+            List<String> isbnTokens = new ArrayList<>(tokenize(document.isbn()));
+            if (isbnTokens.size() > 1) {
+                // Also index the ISBN without hyphens so it matches either way it is typed
+                isbnTokens.add(String.join("", isbnTokens));
+            }
+            addField(weights, isbnTokens, ISBN_WEIGHT);
+            addField(weights, tokenize(document.category()), CATEGORY_WEIGHT);
+            addField(weights, tokenize(document.description()), DESCRIPTION_WEIGHT);
+
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(document.id(), weight));
+            termsByBook.put(document.id(), weights.keySet().toArray(String[]::new));
+        }
+
+        void remove(Long bookId) {
+            String[] terms = termsByBook.remove(bookId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(bookId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Best score per book for the term, exact token or any prefix expansion
+         */
+        Map<Long, Float> scoreTerm(String term) {
+            Map<Long, Float> scores = new HashMap<>();
+            Map<Long, Float> exact = postings.get(term);
+            if (exact != null) {
+                addPostings(scores, exact, 1.0f);
+            }
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                for (Map<Long, Float> expansion : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                    addPostings(scores, expansion, PREFIX_MATCH_FACTOR);
+                }
+            }
+            return scores;
+        }
+
+        private void addPostings(Map<Long, Float> scores, Map<Long, Float> posting, float factor) {
+            float idf = (float) Math.log(1.0 + (double) termsByBook.size() / posting.size());
+            posting.forEach((bookId, weight) -> scores.merge(bookId, weight * idf * factor, Math::max));
+        }
+
+        /**
+         * Add {@code fieldWeight * (1 + ln tf)} for every distinct token of the field
+         */
+        private static void addField(Map<String, Float> weights, List<String> tokens, float fieldWeight) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((token, frequency) ->
+                weights.merge(token, fieldWeight * (1.0f + (float) Math.log(frequency)), Float::sum));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.books;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results
+ *
+ * @param totalMatches number of books matching every query term
+ */
+public record BookSearchPage(List<Book> items, int page, int size, long totalMatches, boolean hasMore) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    /**
+     * Requested page size limited to 1..{@value #MAX_SIZE}
+     */
+    public static int clampSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+}
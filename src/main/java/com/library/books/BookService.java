@@ -1,25 +1,80 @@
 package com.library.books;
 
+import com.library.shared.cache.BoundedTtlCache;
 import com.library.shared.events.BookAddedEvent;
+import com.library.shared.paging.KeysetCursor;
+import com.library.shared.paging.KeysetPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class BookService implements BookModuleAPI {
     
+    private static final int LOW_STOCK_THRESHOLD = 5;
+    
     @Autowired
     private BookRepository bookRepository;
     
     @Autowired
     private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private BookSearchIndex searchIndex;
+    
+    @Autowired
+    private BookSuggestIndex suggestIndex;
+    
+    @Value("${cache.book-info.maximum-size:10000}")
+    private int bookInfoCacheSize;
+    
+    @Value("${cache.book-info.ttl-seconds:300}")
+    private long bookInfoCacheTtlSeconds;
+    
+    private BoundedTtlCache<Long, BookInfo> bookInfoCache;
+    
+    @PostConstruct
+    void initBookInfoCache() {
+        bookInfoCache = new BoundedTtlCache<Long, BookInfo>(bookInfoCacheSize, Duration.ofSeconds(bookInfoCacheTtlSeconds))
+            .bindTo(meterRegistry, "bookInfo");
+    }
+
+    /**
+     * Keyset page ordered newest first; a null cursor starts from the top
+     */
+    public KeysetPage<Book> getBooksPage(String cursor, Integer size) {
+        int limit = KeysetPage.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        List<Book> rows;
+        if (after == null) {
+            rows = bookRepository.findFirstPage(fetch);
+        } else if (after.createdAt() == null) {
+            rows = bookRepository.findUndatedPageAfter(after.id(), fetch);
+        } else {
+            rows = bookRepository.findPageAfter(after.createdAt(), after.id(), fetch);
+        }
+        return KeysetPage.of(rows, limit, row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+    }
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
@@ -37,16 +92,43 @@ public class BookService implements BookModuleAPI {
         return bookRepository.findByCategory(category);
     }
 
-    public List<Book> searchBooks(String keyword) {
-        return bookRepository.findByKeyword(keyword);
+    /**
+     * Ranked page of books matching every term of the query, looked up in the search index
+     */
+    public BookSearchPage searchBooks(String keyword, Integer page, Integer size) {
+        int limit = BookSearchPage.clampSize(size);
+        int pageNumber = page != null ? Math.max(page, 0) : 0;
+        int offset = (int) Math.min((long) pageNumber * limit, Integer.MAX_VALUE - limit);
+        BookSearchIndex.Hits hits = searchIndex.search(keyword, offset, limit);
+
+        Map<Long, Book> books = bookRepository.findAllById(hits.bookIds()).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> items = hits.bookIds().stream()
+            .map(books::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new BookSearchPage(items, pageNumber, limit, hits.total(), offset + limit < hits.total());
+    }
+
+    /**
+     * Most borrowed books whose title or author has a word starting with the prefix
+     */
+    public List<BookSuggestion> suggestBooks(String prefix, Integer limit) {
+        int size = limit != null ? Math.max(1, Math.min(limit, BookSuggestIndex.MAX_SUGGESTIONS)) : 10;
+        return suggestIndex.suggest(prefix, size);
     }
 
     @Transactional
     public Book saveBook(Book book) {
+        // save() assigns the ID to the passed instance, so decide before saving
+        boolean isNew = book.getId() == null;
         Book savedBook = bookRepository.save(book);
+        bookInfoCache.evict(savedBook.getId());
+        searchIndex.indexAfterCommit(savedBook);
+        suggestIndex.indexAfterCommit(savedBook);
         
         // Publish event for new books
-        if (book.getId() == null) {
+        if (isNew) {
             eventPublisher.publishEvent(new BookAddedEvent(
                 savedBook.getId(),
                 savedBook.getTitle(),
@@ -63,6 +145,16 @@ public class BookService implements BookModuleAPI {
     @Transactional
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        bookInfoCache.evict(id);
+        searchIndex.removeAfterCommit(id);
+        suggestIndex.removeAfterCommit(id);
+    }
+
+    /**
+     * Drop cached book infos for books changed outside {@link #saveBook(Book)}
+     */
+    void evictBookInfos(Collection<Long> bookIds) {
+        bookIds.forEach(bookInfoCache::evict);
     }
 
     public List<Book> getAvailableBooks() {
@@ -76,55 +168,78 @@ public class BookService implements BookModuleAPI {
     // Module API Implementation
     @Override
     public BookAnalytics getBookAnalytics() {
-        long totalBooks = bookRepository.count();
-        Long totalCopiesLong = bookRepository.getTotalBookCopies();
-        Long availableCopiesLong = bookRepository.getAvailableBookCopies();
-        
-        long totalCopies = totalCopiesLong != null ? totalCopiesLong : 0;
-        long availableCopies = availableCopiesLong != null ? availableCopiesLong : 0;
-        long borrowedCopies = totalCopies - availableCopies;
-        
-        long outOfStockBooks = bookRepository.countOutOfStock();
-        long lowStockBooks = bookRepository.countLowStock();
-        
-        // Get books by category
-        Map<String, Long> booksByCategory = new HashMap<>();
-        List<String> categories = bookRepository.findAllCategories();
-        for (String category : categories) {
-            long count = bookRepository.findByCategory(category).size();
-            booksByCategory.put(category, count);
-        }
+        InventorySummary inventory = getInventorySummary();
         
         // For now, return empty popular books list
         // In a real implementation, this would be calculated from transaction history
         List<PopularBook> popularBooks = List.of();
         
         return new BookAnalytics(
+            inventory.totalBooks(),
+            inventory.totalCopies(),
+            inventory.availableCopies(),
+            inventory.borrowedCopies(),
+            inventory.outOfStockBooks(),
+            inventory.lowStockBooks(),
+            inventory.booksByCategory(),
+            popularBooks
+        );
+    }
+    
+    @Override
+    public InventorySummary getInventorySummary() {
+        long totalBooks = 0;
+        long totalCopies = 0;
+        long availableCopies = 0;
+        long outOfStockBooks = 0;
+        long lowStockBooks = 0;
+        Map<String, CategoryInventory> categories = new LinkedHashMap<>();
+        
+        for (BookRepository.CategoryInventoryView row : bookRepository.summarizeInventoryByCategory(LOW_STOCK_THRESHOLD)) {
+            long books = valueOf(row.getBookCount());
+            long copies = valueOf(row.getTotalCopies());
+            long available = valueOf(row.getAvailableCopies());
+            
+            totalBooks += books;
+            totalCopies += copies;
+            availableCopies += available;
+            outOfStockBooks += valueOf(row.getOutOfStockBooks());
+            lowStockBooks += valueOf(row.getLowStockBooks());
+            categories.put(row.getCategory(), new CategoryInventory(books, copies, available));
+        }
+        
+        return new InventorySummary(
             totalBooks,
             totalCopies,
             availableCopies,
-            borrowedCopies,
+            totalCopies - availableCopies,
             outOfStockBooks,
             lowStockBooks,
-            booksByCategory,
-            popularBooks
+            categories
         );
     }
     
     @Override
     public BookInfo getBookInfo(Long bookId) {
-        return bookRepository.findById(bookId)
-            .map(book -> new BookInfo(
-                book.getId(),
-                book.getIsbn(),
-                book.getTitle(),
-                book.getAuthor(),
-                book.getCategory(),
-                book.getTotalCopies(),
-                book.getAvailableCopies(),
-                book.isAvailable()
-            ))
-            .orElse(null);
+        return bookInfoCache.get(bookId, id -> bookRepository.findById(id)
+            .map(this::mapToBookInfo)
+            .orElse(null));
+    }
+    
+    @Override
+    public Map<Long, BookInfo> getBookInfos(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        return bookInfoCache.getAll(bookIds, missing -> bookRepository.findAllById(missing).stream()
+            .collect(Collectors.toMap(Book::getId, this::mapToBookInfo)));
+    }
+    
+    @Override
+    public List<BookInfo> getAllBookInfos() {
+        return bookRepository.findAll().stream()
+            .map(this::mapToBookInfo)
+            .collect(Collectors.toList());
     }
     
     @Override
@@ -136,22 +251,32 @@ public class BookService implements BookModuleAPI {
     
     @Override
     @Transactional
-    public void borrowBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new RuntimeException("Book not found"));
-        
-        book.borrowCopy();
-        bookRepository.save(book);
+    public BookInfo borrowBook(Long bookId) {
+        // Check and decrement in one statement so concurrent borrows cannot oversell the last copy
+        int updated = bookRepository.borrowCopy(bookId, Book.BookStatus.AVAILABLE, Book.BookStatus.OUT_OF_STOCK, LocalDateTime.now());
+        if (updated == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found");
+            }
+            throw new RuntimeException("Book is not available for borrowing");
+        }
+        bookInfoCache.evict(bookId);
+        suggestIndex.recordBorrowAfterCommit(bookId);
+        return loadBookInfo(bookId);
     }
     
     @Override
     @Transactional
-    public void returnBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-            .orElseThrow(() -> new RuntimeException("Book not found"));
-        
-        book.returnCopy();
-        bookRepository.save(book);
+    public BookInfo returnBook(Long bookId) {
+        int updated = bookRepository.returnCopy(bookId, Book.BookStatus.AVAILABLE, Book.BookStatus.OUT_OF_STOCK, LocalDateTime.now());
+        if (updated == 0) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found");
+            }
+            throw new RuntimeException("Cannot return more copies than total");
+        }
+        bookInfoCache.evict(bookId);
+        return loadBookInfo(bookId);
     }
     
     @Override
@@ -173,13 +298,7 @@ public class BookService implements BookModuleAPI {
     
     @Override
     public Map<String, Long> getBooksByCategory() {
-        Map<String, Long> result = new HashMap<>();
-        List<String> categories = bookRepository.findAllCategories();
-        for (String category : categories) {
-            long count = bookRepository.findByCategory(category).size();
-            result.put(category, count);
-        }
-        return result;
+        return getInventorySummary().booksByCategory();
     }
     
     @Override
@@ -227,4 +346,27 @@ public class BookService implements BookModuleAPI {
     public Book createBook(Book book) {
         return bookRepository.save(book);
     }
+    
+    private BookInfo loadBookInfo(Long bookId) {
+        return bookRepository.findById(bookId)
+            .map(this::mapToBookInfo)
+            .orElseThrow(() -> new RuntimeException("Book not found"));
+    }
+    
+    private BookInfo mapToBookInfo(Book book) {
+        return new BookInfo(
+            book.getId(),
+            book.getIsbn(),
+            book.getTitle(),
+            book.getAuthor(),
+            book.getCategory(),
+            book.getTotalCopies(),
+            book.getAvailableCopies(),
+            book.isAvailable()
+        );
+    }
+    
+    private static long valueOf(Long value) {
+        return value != null ? value : 0;
+    }
 }
@@ -0,0 +1,402 @@
+package com.library.books;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Typeahead over normalized titles and authors, ranked by borrow count.
+ *
+ * Keys are the normalized text from each of its first few word starts, so
+ * "potter" finds "Harry Potter", kept in a sorted set and range-scanned by
+ * prefix. Prefixes of up to {@value #CACHED_PREFIX_LENGTH} characters match
+ * too much of the catalog to scan per keystroke, so their top
+ * {@value #MAX_SUGGESTIONS} books are cached and adjusted in place as
+ * borrows come in. Kept current after commit by book saves, deletes,
+ * borrows and catalog imports.
+ *
+ * The startup build loads into a fresh catalog outside the lock. Updates
+ * that commit meanwhile are buffered and replayed before it is swapped in;
+ * borrows are replayed by re-reading their counts, since the snapshot may
+ * already include them.
+ */
+@Component
+class BookSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSuggestIndex.class);
+
+    static final int MAX_SUGGESTIONS = 20;
+    private static final int CACHED_PREFIX_LENGTH = 3;
+    private static final int MAX_WORD_STARTS = 5;
+
+    private static final Comparator<Key> KEY_ORDER =
+        Comparator.comparing(Key::text).thenComparingLong(Key::bookId);
+
+    private static final Comparator<SuggestedBook> MOST_POPULAR_FIRST =
+        Comparator.comparingLong((SuggestedBook book) -> book.borrowCount).reversed()
+            .thenComparing(book -> book.title)
+            .thenComparingLong(book -> book.bookId);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Catalog catalog = new Catalog();
+    private List<Consumer<Catalog>> pendingUpdates = null;
+    private Set<Long> pendingBorrows = null;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload titles, authors and borrow counts for the whole catalog
+     */
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+            pendingBorrows = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Catalog rebuilt = new Catalog();
+        try {
+            for (BookRepository.SuggestableBookView book : bookRepository.findAllSuggestable()) {
+                rebuilt.add(toSuggestedBook(book));
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current catalog and apply what was buffered to it
+            swapIn(catalog);
+            throw e;
+        }
+        swapIn(rebuilt);
+        log.info("Book suggest index built: {} books, {} keys in {} ms",
+            rebuilt.bookCount(), rebuilt.keyCount(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Index the book's title and author once the surrounding transaction
+     * commits, keeping the borrow count already tracked for it
+     */
+    void indexAfterCommit(Book book) {
+        Long bookId = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        afterCommit(() -> apply(target -> target.replace(bookId, title, author)));
+    }
+
+    void removeAfterCommit(Long bookId) {
+        afterCommit(() -> apply(target -> target.remove(bookId)));
+    }
+
+    void recordBorrowAfterCommit(Long bookId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (pendingBorrows != null) {
+                    pendingBorrows.add(bookId);
+                } else {
+                    catalog.recordBorrow(bookId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    List<BookSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return catalog.top(normalized, limit).stream()
+                .limit(limit)
+                .map(book -> new BookSuggestion(book.bookId, book.title, book.author, book.borrowCount))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tokens joined by single spaces, matching how keys are stored
+     */
+    static String normalize(String text) {
+        return String.join(" ", BookSearchIndex.tokenize(text));
+    }
+
+    private void apply(Consumer<Catalog> update) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            } else {
+                update.accept(catalog);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replay buffered updates onto the new catalog and make it live. Borrow
+     * counts are re-read outside the lock and applied under it, until no
+     * more borrows arrive.
+     */
+    private void swapIn(Catalog rebuilt) {
+        Map<Long, Long> recounted = Map.of();
+        while (true) {
+            Set<Long> borrowedIds;
+            lock.writeLock().lock();
+            try {
+                recounted.forEach(rebuilt::setBorrowCount);
+                pendingUpdates.forEach(update -> update.accept(rebuilt));
+                pendingUpdates.clear();
+                if (pendingBorrows.isEmpty()) {
+                    pendingUpdates = null;
+                    pendingBorrows = null;
+                    catalog = rebuilt;
+                    return;
+                }
+                borrowedIds = pendingBorrows;
+                pendingBorrows = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            recounted = recount(rebuilt, borrowedIds);
+        }
+    }
+
+    /**
+     * Current borrow counts of the books; if they cannot be read, each
+     * buffered borrow is counted once on top of the snapshot instead
+     */
+    private Map<Long, Long> recount(Catalog rebuilt, Set<Long> bookIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        try {
+            for (BookRepository.SuggestableBookView book : bookRepository.findSuggestableByIdIn(bookIds)) {
+                counts.put(book.getId(), book.getBorrowCount() != null ? book.getBorrowCount() : 0);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not re-read borrow counts during rebuild, counting the buffered borrows instead", e);
+            lock.readLock().lock();
+            try {
+                for (Long bookId : bookIds) {
+                    counts.put(bookId, rebuilt.borrowCount(bookId) + 1);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return counts;
+    }
+
+    private static SuggestedBook toSuggestedBook(BookRepository.SuggestableBookView book) {
+        long borrowCount = book.getBorrowCount() != null ? book.getBorrowCount() : 0;
+        return new SuggestedBook(book.getId(), book.getTitle(), book.getAuthor(), borrowCount);
+    }
+
+    /**
+     * Run after the current transaction commits, or right away outside one
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(String text, long bookId) {}
+
+    private static class SuggestedBook {
+        private final Long bookId;
+        private final String title;
+        private final String author;
+        private long borrowCount;
+        private String[] keys;
+
+        SuggestedBook(Long bookId, String title, String author, long borrowCount) {
+            this.bookId = bookId;
+            this.title = title;
+            this.author = author;
+            this.borrowCount = borrowCount;
+        }
+    }
+
+    /**
+     * Sorted keys, books by id and the cached top lists of short prefixes
+     */
+    private static class Catalog {
+        private final NavigableSet<Key> keys = new TreeSet<>(KEY_ORDER);
+        private final Map<Long, SuggestedBook> booksById = new HashMap<>();
+        private final Map<String, List<SuggestedBook>> topByShortPrefix = new ConcurrentHashMap<>();
+
+        int bookCount() {
+            return booksById.size();
+        }
+
+        int keyCount() {
+            return keys.size();
+        }
+
+        /**
+         * Top books for the prefix; short prefixes are computed once and cached
+         */
+        List<SuggestedBook> top(String prefix, int limit) {
+            return prefix.length() <= CACHED_PREFIX_LENGTH
+                ? topByShortPrefix.computeIfAbsent(prefix, key -> selectTop(key, MAX_SUGGESTIONS))
+                : selectTop(prefix, limit);
+        }
+
+        void replace(Long bookId, String title, String author) {
+            SuggestedBook previous = remove(bookId);
+            long borrowCount = previous != null ? previous.borrowCount : 0;
+            add(new SuggestedBook(bookId, title, author, borrowCount));
+        }
+
+        void recordBorrow(Long bookId) {
+            SuggestedBook book = booksById.get(bookId);
+            if (book != null) {
+                book.borrowCount++;
+                promoteInCachedPrefixes(book);
+            }
+        }
+
+        long borrowCount(Long bookId) {
+            SuggestedBook book = booksById.get(bookId);
+            return book != null ? book.borrowCount : 0;
+        }
+
+        void setBorrowCount(Long bookId, long borrowCount) {
+            SuggestedBook book = booksById.get(bookId);
+            if (book != null && book.borrowCount != borrowCount) {
+                book.borrowCount = borrowCount;
+                shortPrefixes(book.keys).forEach(topByShortPrefix::remove);
+            }
+        }
+
+        void add(SuggestedBook book) {
+            Set<String> bookKeys = new LinkedHashSet<>();
+            addWordStarts(bookKeys, book.title);
+            addWordStarts(bookKeys, book.author);
+            book.keys = bookKeys.toArray(String[]::new);
+            for (String key : book.keys) {
+                keys.add(new Key(key, book.bookId));
+            }
+            booksById.put(book.bookId, book);
+            shortPrefixes(book.keys).forEach(topByShortPrefix::remove);
+        }
+
+        SuggestedBook remove(Long bookId) {
+            SuggestedBook book = booksById.remove(bookId);
+            if (book != null) {
+                for (String key : book.keys) {
+                    keys.remove(new Key(key, bookId));
+                }
+                shortPrefixes(book.keys).forEach(topByShortPrefix::remove);
+            }
+            return book;
+        }
+
+        /**
+         * Most borrowed distinct books with a key starting with the prefix
+         */
+        private List<SuggestedBook> selectTop(String prefix, int limit) {
+            NavigableSet<Key> range = keys.subSet(
+                new Key(prefix, Long.MIN_VALUE), true,
+                new Key(prefix + Character.MAX_VALUE, Long.MIN_VALUE), false);
+            Set<Long> seen = new HashSet<>();
+            PriorityQueue<SuggestedBook> heap = new PriorityQueue<>(limit + 1, MOST_POPULAR_FIRST.reversed());
+            for (Key key : range) {
+                if (!seen.add(key.bookId())) {
+                    continue;
+                }
+                heap.offer(booksById.get(key.bookId()));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            List<SuggestedBook> top = new ArrayList<>(heap);
+            top.sort(MOST_POPULAR_FIRST);
+            return List.copyOf(top);
+        }
+
+        /**
+         * Counts only go up between rebuilds, so a borrowed book can only move up
+         * a cached list or push out its last entry
+         */
+        private void promoteInCachedPrefixes(SuggestedBook book) {
+            for (String prefix : shortPrefixes(book.keys)) {
+                List<SuggestedBook> top = topByShortPrefix.get(prefix);
+                if (top == null) {
+                    continue;
+                }
+                List<SuggestedBook> updated = new ArrayList<>(top);
+                if (!updated.contains(book)) {
+                    if (updated.size() < MAX_SUGGESTIONS) {
+                        // The list already held every match, so this one should have been in it
+                        topByShortPrefix.remove(prefix);
+                        continue;
+                    }
+                    if (MOST_POPULAR_FIRST.compare(book, updated.get(updated.size() - 1)) >= 0) {
+                        continue;
+                    }
+                    updated.set(updated.size() - 1, book);
+                }
+                updated.sort(MOST_POPULAR_FIRST);
+                topByShortPrefix.put(prefix, List.copyOf(updated));
+            }
+        }
+
+        private static void addWordStarts(Set<String> bookKeys, String text) {
+            List<String> tokens = BookSearchIndex.tokenize(text);
+            for (int start = 0; start < Math.min(tokens.size(), MAX_WORD_STARTS); start++) {
+                bookKeys.add(String.join(" ", tokens.subList(start, tokens.size())));
+            }
+        }
+
+        private static Set<String> shortPrefixes(String[] bookKeys) {
+            Set<String> prefixes = new HashSet<>();
+            for (String key : bookKeys) {
+                for (int length = 1; length <= Math.min(key.length(), CACHED_PREFIX_LENGTH); length++) {
+                    prefixes.add(key.substring(0, length));
+                }
+            }
+            return prefixes;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.library.books;
+
+/**
+ * Typeahead entry for the search box
+ */
+public record BookSuggestion(Long bookId, String title, String author, long borrowCount) {}
@@ -0,0 +1,536 @@
+package com.library.books;
+
+import com.library.shared.events.CatalogImportedEvent;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports books from CSV uploads, upserting by ISBN.
+ *
+ * The upload is spooled to a temp file and parsed row by row on a single
+ * background thread, so neither the file nor the parsed catalog is held in
+ * memory. Rows are validated, grouped into batches and each batch is written
+ * in its own transaction with one ISBN lookup, publishing a single
+ * {@link CatalogImportedEvent} instead of a {@code BookAddedEvent} per book.
+ * Progress and the first row errors are available while the import runs.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("isbn", "title", "author", "category", "totalcopies");
+    private static final int MAX_COLUMN_LENGTH = 255;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private BookSuggestIndex suggestIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${catalog.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${catalog.import.retained-imports:50}")
+    private int retainedImports;
+
+    private ThreadPoolExecutor executor;
+    private Map<String, ImportJob> imports;
+
+    private Counter createdCounter;
+    private Counter updatedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> {
+                Thread thread = new Thread(task, "catalog-import");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        imports = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+                return size() > retainedImports;
+            }
+        });
+        createdCounter = rowCounter("created");
+        updatedCounter = rowCounter("updated");
+        failedCounter = rowCounter("failed");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Spool the upload and queue it for import
+     *
+     * @throws RejectedExecutionException when too many imports are already queued
+     */
+    public CatalogImportStatus submit(MultipartFile file) throws IOException {
+        Path spool = Files.createTempFile("catalog-import-", ".csv");
+        try {
+            file.transferTo(spool);
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+            imports.put(job.importId, job);
+            try {
+                executor.execute(() -> run(job, spool));
+            } catch (RejectedExecutionException e) {
+                imports.remove(job.importId);
+                throw e;
+            }
+            return job.snapshot();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    public Optional<CatalogImportStatus> getStatus(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportJob::snapshot);
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.start();
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(spool, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = readHeader(reader.readNext());
+            List<ParsedRow> batch = new ArrayList<>(batchSize);
+            int batchNumber = 0;
+            String[] fields;
+            while ((fields = reader.readNext()) != null) {
+                if (isBlankRow(fields)) {
+                    continue;
+                }
+                long line = reader.getLinesRead();
+                job.rowRead();
+                try {
+                    batch.add(parse(line, fields, columns));
+                } catch (IllegalArgumentException e) {
+                    recordFailure(job, line, column(fields, columns, "isbn"), e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    commitBatch(job, ++batchNumber, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                commitBatch(job, ++batchNumber, batch);
+            }
+            job.complete();
+            log.info("Catalog import {} finished: {} rows, {} created, {} updated, {} failed",
+                job.importId, job.rowsRead, job.created, job.updated, job.failed);
+        } catch (IOException | CsvValidationException | IllegalArgumentException e) {
+            log.warn("Catalog import {} aborted: {}", job.importId, e.getMessage());
+            job.fail(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Catalog import {} failed", job.importId, e);
+            job.fail("Import failed: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", spool, e);
+            }
+        }
+    }
+
+    private void commitBatch(ImportJob job, int batchNumber, List<ParsedRow> rows) {
+        // Last row wins when an ISBN repeats within a batch
+        Map<String, ParsedRow> byIsbn = new LinkedHashMap<>();
+        for (ParsedRow row : rows) {
+            ParsedRow previous = byIsbn.put(row.isbn(), row);
+            if (previous != null) {
+                recordFailure(job, previous.line(), previous.isbn(), "Duplicate ISBN, superseded by line " + row.line());
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BatchOutcome outcome = transactionTemplate.execute(status -> upsert(job.importId, batchNumber, byIsbn.values()));
+                for (CatalogImportStatus.RowError error : outcome.errors()) {
+                    recordFailure(job, error.line(), error.isbn(), error.message());
+                }
+                createdCounter.increment(outcome.created());
+                updatedCounter.increment(outcome.updated());
+                job.batchCommitted(outcome.created(), outcome.updated());
+                return;
+            } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // A concurrent borrow, edit or insert of the same ISBN; the next attempt reloads the rows
+                if (attempt >= MAX_BATCH_ATTEMPTS) {
+                    failBatch(job, byIsbn.values(), "Batch conflicted with concurrent changes");
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Catalog import {} batch {} failed", job.importId, batchNumber, e);
+                failBatch(job, byIsbn.values(), "Batch rejected: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private BatchOutcome upsert(String importId, int batchNumber, Collection<ParsedRow> rows) {
+        Map<String, Book> existing = bookRepository.findByIsbnIn(rows.stream().map(ParsedRow::isbn).toList()).stream()
+            .collect(Collectors.toMap(Book::getIsbn, Function.identity()));
+
+        List<Book> created = new ArrayList<>();
+        List<CatalogImportedEvent.UpdatedBook> updated = new ArrayList<>();
+        List<CatalogImportStatus.RowError> errors = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            Book book = existing.get(row.isbn());
+            if (book == null) {
+                book = new Book(row.isbn(), row.title(), row.author(), row.category(), row.totalCopies());
+                row.applyOptionalFields(book);
+                created.add(book);
+                continue;
+            }
+
+            int onLoan = book.getTotalCopies() - book.getAvailableCopies();
+            if (row.totalCopies() < onLoan) {
+                errors.add(new CatalogImportStatus.RowError(row.line(), row.isbn(),
+                    "Total copies " + row.totalCopies() + " is below the " + onLoan + " copies on loan"));
+                continue;
+            }
+            String previousCategory = book.getCategory();
+            int previousTotal = book.getTotalCopies();
+            int previousAvailable = book.getAvailableCopies();
+
+            book.setTitle(row.title());
+            book.setAuthor(row.author());
+            book.setCategory(row.category());
+            book.setTotalCopies(row.totalCopies());
+            book.setAvailableCopies(row.totalCopies() - onLoan);
+            if (book.getStatus() != Book.BookStatus.DISCONTINUED) {
+                book.setStatus(book.getAvailableCopies() > 0 ? Book.BookStatus.AVAILABLE : Book.BookStatus.OUT_OF_STOCK);
+            }
+            row.applyOptionalFields(book);
+            searchIndex.indexAfterCommit(book);
+            suggestIndex.indexAfterCommit(book);
+            updated.add(new CatalogImportedEvent.UpdatedBook(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                book.getCategory(),
+                previousCategory,
+                book.getTotalCopies() - previousTotal,
+                book.getAvailableCopies() - previousAvailable
+            ));
+        }
+
+        bookRepository.saveAll(created);
+        for (Book book : created) {
+            searchIndex.indexAfterCommit(book);
+            suggestIndex.indexAfterCommit(book);
+        }
+        bookService.evictBookInfos(updated.stream().map(CatalogImportedEvent.UpdatedBook::bookId).toList());
+
+        List<CatalogImportedEvent.AddedBook> added = created.stream()
+            .map(book -> new CatalogImportedEvent.AddedBook(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                book.getIsbn(),
+                book.getCategory(),
+                book.getTotalCopies()
+            ))
+            .toList();
+        if (!added.isEmpty() || !updated.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogImportedEvent(importId, batchNumber, added, updated));
+        }
+        return new BatchOutcome(added.size(), updated.size(), errors);
+    }
+
+    private void failBatch(ImportJob job, Collection<ParsedRow> rows, String message) {
+        for (ParsedRow row : rows) {
+            recordFailure(job, row.line(), row.isbn(), message);
+        }
+    }
+
+    private void recordFailure(ImportJob job, long line, String isbn, String message) {
+        failedCounter.increment();
+        job.rowFailed(new CatalogImportStatus.RowError(line, isbn, message), maxErrors);
+    }
+
+    /**
+     * Map normalized header names (lower case, letters and digits only) to column indexes
+     */
+    private static Map<String, Integer> readHeader(String[] header) {
+        if (header == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].replace("\uFEFF", "").toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            columns.putIfAbsent(name, i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(name -> !columns.containsKey(name)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing required columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static ParsedRow parse(long line, String[] fields, Map<String, Integer> columns) {
+        Integer totalCopies = parseInteger(fields, columns, "totalcopies");
+        if (totalCopies == null || totalCopies <= 0) {
+            throw new IllegalArgumentException("Total copies must be positive");
+        }
+        String price = column(fields, columns, "price");
+        BigDecimal parsedPrice;
+        try {
+            parsedPrice = price != null ? new BigDecimal(price) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price '" + price + "'");
+        }
+        return new ParsedRow(
+            line,
+            required(fields, columns, "isbn", "ISBN"),
+            required(fields, columns, "title", "Title"),
+            required(fields, columns, "author", "Author"),
+            required(fields, columns, "category", "Category"),
+            totalCopies,
+            optional(fields, columns, "publisher"),
+            parseInteger(fields, columns, "publicationyear"),
+            column(fields, columns, "description"),
+            parsedPrice,
+            optional(fields, columns, "language"),
+            parseInteger(fields, columns, "pages")
+        );
+    }
+
+    private static String required(String[] fields, Map<String, Integer> columns, String name, String label) {
+        String value = optional(fields, columns, name);
+        if (value == null) {
+            throw new IllegalArgumentException(label + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(String[] fields, Map<String, Integer> columns, String name) {
+        String value = column(fields, columns, name);
+        if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+            throw new IllegalArgumentException(name + " is longer than " + MAX_COLUMN_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static Integer parseInteger(String[] fields, Map<String, Integer> columns, String name) {
+        String value = column(fields, columns, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    /**
+     * Trimmed value of the column, or null when the column is absent or blank
+     */
+    private static String column(String[] fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean isBlankRow(String[] fields) {
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Counter rowCounter(String result) {
+        return Counter.builder("catalog.import.rows")
+            .tag("result", result)
+            .description("Catalog import rows by outcome")
+            .register(meterRegistry);
+    }
+
+    private record ParsedRow(
+        long line,
+        String isbn,
+        String title,
+        String author,
+        String category,
+        int totalCopies,
+        String publisher,
+        Integer publicationYear,
+        String description,
+        BigDecimal price,
+        String language,
+        Integer pages
+    ) {
+        /**
+         * Columns left blank keep the book's current value
+         */
+        void applyOptionalFields(Book book) {
+            if (publisher != null) {
+                book.setPublisher(publisher);
+            }
+            if (publicationYear != null) {
+                book.setPublicationYear(publicationYear);
+            }
+            if (description != null) {
+                book.setDescription(description);
+            }
+            if (price != null) {
+                book.setPrice(price);
+            }
+            if (language != null) {
+                book.setLanguage(language);
+            }
+            if (pages != null) {
+                book.setPages(pages);
+            }
+        }
+    }
+
+    private record BatchOutcome(int created, int updated, List<CatalogImportStatus.RowError> errors) {}
+
+    /**
+     * Mutable progress of one import, written by the import thread and read by status requests
+     */
+    private static class ImportJob {
+        private final String importId;
+        private final String filename;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final List<CatalogImportStatus.RowError> errors = new ArrayList<>();
+        private CatalogImportStatus.State state = CatalogImportStatus.State.QUEUED;
+        private long rowsRead;
+        private long created;
+        private long updated;
+        private long failed;
+        private int batchesCommitted;
+        private boolean errorsTruncated;
+        private String message;
+        private LocalDateTime finishedAt;
+
+        ImportJob(String importId, String filename) {
+            this.importId = importId;
+            this.filename = filename;
+        }
+
+        synchronized void start() {
+            state = CatalogImportStatus.State.RUNNING;
+        }
+
+        synchronized void rowRead() {
+            rowsRead++;
+        }
+
+        synchronized void rowFailed(CatalogImportStatus.RowError error, int maxErrors) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        synchronized void batchCommitted(int createdRows, int updatedRows) {
+            created += createdRows;
+            updated += updatedRows;
+            batchesCommitted++;
+        }
+
+        synchronized void complete() {
+            state = CatalogImportStatus.State.COMPLETED;
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized void fail(String reason) {
+            state = CatalogImportStatus.State.FAILED;
+            message = reason;
+            finishedAt = LocalDateTime.now();
+        }
+
+        synchronized CatalogImportStatus snapshot() {
+            return new CatalogImportStatus(
+                importId,
+                filename,
+                state,
+                rowsRead,
+                created,
+                updated,
+                failed,
+                batchesCommitted,
+                List.copyOf(errors),
+                errorsTruncated,
+                message,
+                submittedAt,
+                finishedAt
+            );
+        }
+    }
+}
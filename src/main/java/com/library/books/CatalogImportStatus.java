@@ -0,0 +1,33 @@
+package com.library.books;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress snapshot of a catalog import. Only the first row errors are kept;
+ * {@code failed} counts all of them.
+ */
+public record CatalogImportStatus(
+    String importId,
+    String filename,
+    State state,
+    long rowsRead,
+    long created,
+    long updated,
+    long failed,
+    int batchesCommitted,
+    List<RowError> errors,
+    boolean errorsTruncated,
+    String message,
+    LocalDateTime submittedAt,
+    LocalDateTime finishedAt
+) {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * @param line physical line in the uploaded file, header included
+     */
+    public record RowError(long line, String isbn, String message) {}
+}
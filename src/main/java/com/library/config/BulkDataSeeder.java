@@ -0,0 +1,306 @@
+package com.library.config;
+
+import com.library.books.Book;
+import com.library.users.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes seed data straight to the tables with JDBC batch inserts,
+ * bypassing the services, entity lifecycle and domain events.
+ * In-memory projections pick the rows up when they rebuild on startup.
+ */
+@Component
+public class BulkDataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkDataSeeder.class);
+
+    static final int LOAN_DAYS = 14;
+
+    private static final String INSERT_USER =
+        "INSERT INTO users (id, username, password, email, first_name, last_name, phone_number, address, " +
+        "role, enabled, token_version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BOOK =
+        "INSERT INTO books (id, isbn, title, author, publisher, publication_year, category, description, " +
+        "total_copies, available_copies, price, language, pages, status, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (id, user_id, book_id, active_book_id, type, status, borrowed_at, due_date, " +
+        "returned_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_BOOK_STOCK =
+        "UPDATE books SET available_copies = ?, status = ?, borrow_count = borrow_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${spring.jpa.properties.library.id.allocation-size:50}")
+    private int allocationSize;
+
+    private IdBlock userIds;
+    private IdBlock bookIds;
+    private IdBlock transactionIds;
+
+    /**
+     * Ids are drawn from the same sequences Hibernate uses, a pooled block
+     * per sequence call, so they never collide with the ids the entity
+     * manager hands out.
+     */
+    @PostConstruct
+    void prepareSequences() {
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport();
+        userIds = new IdBlock(sequenceSupport.getSequenceNextValString("users_seq"));
+        bookIds = new IdBlock(sequenceSupport.getSequenceNextValString("books_seq"));
+        transactionIds = new IdBlock(sequenceSupport.getSequenceNextValString("transactions_seq"));
+    }
+
+    /**
+     * Shape of generated loans
+     *
+     * @param activeShare  share of loans still out, limited by available copies
+     * @param overdueShare share of active loans already past their due date
+     * @param historyDays  how far back completed loans are spread
+     */
+    public record LoanProfile(double activeShare, double overdueShare, int historyDays) {}
+
+    /**
+     * Book ids in ascending order with the available copies of each, by position
+     */
+    public record BookStock(IdRanges bookIds, int[] availableCopies) {
+
+        public int size() {
+            return availableCopies.length;
+        }
+    }
+
+    public void insertUsers(List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(Math.min(users.size(), batchSize));
+        for (User user : users) {
+            LocalDateTime createdAt = user.getCreatedAt() != null ? user.getCreatedAt() : now;
+            rows.add(new Object[] {
+                userIds.next(), user.getUsername(), user.getPassword(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getPhoneNumber(), user.getAddress(), user.getRole().name(), user.isEnabled(),
+                user.getTokenVersion(), Timestamp.valueOf(createdAt), Timestamp.valueOf(now)
+            });
+            if (rows.size() >= batchSize) {
+                flush(INSERT_USER, rows);
+            }
+        }
+        flush(INSERT_USER, rows);
+    }
+
+    public void insertBooks(List<Book> books) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(Math.min(books.size(), batchSize));
+        for (Book book : books) {
+            LocalDateTime createdAt = book.getCreatedAt() != null ? book.getCreatedAt() : now;
+            int available = book.getAvailableCopies() != null ? book.getAvailableCopies() : book.getTotalCopies();
+            rows.add(new Object[] {
+                bookIds.next(), book.getIsbn(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getPublicationYear(),
+                book.getCategory(), book.getDescription(), book.getTotalCopies(), available, book.getPrice(),
+                book.getLanguage(), book.getPages(), book.getStatus().name(),
+                Timestamp.valueOf(createdAt), Timestamp.valueOf(now)
+            });
+            if (rows.size() >= batchSize) {
+                flush(INSERT_BOOK, rows);
+            }
+        }
+        flush(INSERT_BOOK, rows);
+    }
+
+    /**
+     * User ids, read row by row into runs so no list of the whole table is built
+     */
+    public IdRanges findUserIds() {
+        IdRanges userIds = new IdRanges();
+        jdbcTemplate.query("SELECT id FROM users ORDER BY id", (RowCallbackHandler) rs -> userIds.add(rs.getLong(1)));
+        return userIds;
+    }
+
+    /**
+     * Book ids and available copies, read row by row; stock is kept in a primitive array
+     */
+    public BookStock findBookStock() {
+        Long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        IdRanges bookIds = new IdRanges();
+        int[][] available = { new int[Math.toIntExact(expected != null ? expected : 0)] };
+        jdbcTemplate.query("SELECT id, available_copies FROM books ORDER BY id", (RowCallbackHandler) rs -> {
+            int index = (int) bookIds.size();
+            if (index == available[0].length) {
+                // Rows added since the count
+                available[0] = Arrays.copyOf(available[0], Math.max(16, index * 2));
+            }
+            bookIds.add(rs.getLong(1));
+            available[0][index] = rs.getInt(2);
+        });
+        return new BookStock(bookIds, Arrays.copyOf(available[0], (int) bookIds.size()));
+    }
+
+    /**
+     * Generate and insert {@code count} borrow transactions in batches.
+     * A loan is only left active when the book still has a free copy and the
+     * user does not already hold it; book stock and borrow counts are written
+     * back at the end.
+     *
+     * @param bookPicker picks a position in {@code books}
+     * @return number of transactions inserted
+     */
+    public long seedLoans(long count, IdRanges userIds, BookStock books, LoanProfile profile,
+                          ToIntFunction<Random> bookPicker, Random random) {
+        if (count <= 0 || userIds.isEmpty() || books.size() == 0) {
+            return 0;
+        }
+        int[] available = books.availableCopies().clone();
+        int[] borrows = new int[books.size()];
+        Set<Long> activeLoans = new HashSet<>();
+        // Loans already open in the table count as held
+        jdbcTemplate.query("SELECT user_id, active_book_id FROM transactions WHERE active_book_id IS NOT NULL",
+            (RowCallbackHandler) rs -> activeLoans.add((rs.getLong(1) << 32) | rs.getLong(2)));
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+        long inserted = 0;
+        long nextReport = batchSize * 100L;
+        for (long i = 0; i < count; i++) {
+            int bookIndex = bookPicker.applyAsInt(random);
+            long bookId = books.bookIds().get(bookIndex);
+            long userId = userIds.get(random.nextInt(Math.toIntExact(userIds.size())));
+
+            boolean active = random.nextDouble() < profile.activeShare()
+                && available[bookIndex] > 0
+                && activeLoans.add((userId << 32) | bookId);
+            long id = transactionIds.next();
+            rows.add(active
+                ? activeLoan(id, userId, bookId, now, random.nextDouble() < profile.overdueShare(), random)
+                : completedLoan(id, userId, bookId, now, profile.historyDays(), random));
+            if (active) {
+                available[bookIndex]--;
+            }
+            borrows[bookIndex]++;
+
+            if (rows.size() >= batchSize) {
+                inserted += flush(INSERT_TRANSACTION, rows);
+                if (inserted >= nextReport) {
+                    logThroughput(inserted, count, started);
+                    nextReport += batchSize * 100L;
+                }
+            }
+        }
+        inserted += flush(INSERT_TRANSACTION, rows);
+        logThroughput(inserted, count, started);
+
+        List<Object[]> stock = new ArrayList<>();
+        for (int i = 0; i < available.length; i++) {
+            if (borrows[i] > 0) {
+                String status = available[i] > 0 ? Book.BookStatus.AVAILABLE.name() : Book.BookStatus.OUT_OF_STOCK.name();
+                stock.add(new Object[] { available[i], status, borrows[i], books.bookIds().get(i) });
+            }
+            if (stock.size() >= batchSize) {
+                flush(UPDATE_BOOK_STOCK, stock);
+            }
+        }
+        flush(UPDATE_BOOK_STOCK, stock);
+        return inserted;
+    }
+
+    private static Object[] activeLoan(long id, long userId, long bookId, LocalDateTime now, boolean overdue, Random random) {
+        int daysAgo = overdue ? LOAN_DAYS + 1 + random.nextInt(30) : random.nextInt(LOAN_DAYS);
+        LocalDateTime borrowedAt = now.minusDays(daysAgo).minusMinutes(random.nextInt(24 * 60));
+        return loanRow(id, userId, bookId, "ACTIVE", borrowedAt, null);
+    }
+
+    private static Object[] completedLoan(long id, long userId, long bookId, LocalDateTime now, int historyDays,
+                                          Random random) {
+        LocalDateTime borrowedAt = now.minusDays(random.nextInt(Math.max(historyDays, 1)))
+            .minusMinutes(random.nextInt(24 * 60));
+        LocalDateTime returnedAt = borrowedAt.plusDays(1 + random.nextInt(LOAN_DAYS + 7))
+            .plusMinutes(random.nextInt(24 * 60));
+        if (returnedAt.isAfter(now)) {
+            returnedAt = now;
+        }
+        return loanRow(id, userId, bookId, "COMPLETED", borrowedAt, returnedAt);
+    }
+
+    private static Object[] loanRow(long id, long userId, long bookId, String status, LocalDateTime borrowedAt,
+                                    LocalDateTime returnedAt) {
+        Timestamp borrowed = Timestamp.valueOf(borrowedAt);
+        Timestamp updated = Timestamp.valueOf(returnedAt != null ? returnedAt : borrowedAt);
+        return new Object[] {
+            id, userId, bookId, returnedAt == null ? bookId : null, "BORROW", status, borrowed, Timestamp.valueOf(borrowedAt.plusDays(LOAN_DAYS)),
+            returnedAt != null ? Timestamp.valueOf(returnedAt) : null, borrowed, updated
+        };
+    }
+
+    private int flush(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int size = rows.size();
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+        return size;
+    }
+
+    /**
+     * Ids from one sequence, handed out the way the pooled optimizer does:
+     * each sequence value {@code v} reserves {@code (v - allocationSize, v]}
+     */
+    private final class IdBlock {
+
+        private final String nextValueSql;
+        private long next = 1;
+        private long last = 0;
+
+        IdBlock(String nextValueSql) {
+            this.nextValueSql = nextValueSql;
+        }
+
+        synchronized long next() {
+            if (next > last) {
+                long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                last = value;
+                // The first value of a fresh sequence is its start, not the end of a block
+                next = Math.max(1, value - allocationSize + 1);
+            }
+            return next++;
+        }
+    }
+
+    private static void logThroughput(long inserted, long total, long startedNanos) {
+        double seconds = Math.max((System.nanoTime() - startedNanos) / 1_000_000_000.0, 0.001);
+        log.info("Seeded {}/{} transactions ({} rows/s)", inserted, total, Math.round(inserted / seconds));
+    }
+}
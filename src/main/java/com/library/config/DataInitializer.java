@@ -7,7 +7,9 @@ import com.library.transactions.TransactionService;
 import com.library.users.User;
 import com.library.users.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Random;
 
 @Component
+@Order(1)
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -31,15 +34,28 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private BulkDataSeeder bulkDataSeeder;
+
+    /**
+     * "service" goes through the module services and publishes events;
+     * "bulk" writes the same data with JDBC batch inserts
+     */
+    @Value("${app.seed.mode:service}")
+    private String seedMode;
+
+    @Value("${app.seed.transactions:138}")
+    private long seedTransactions;
+
     @Override
     public void run(String... args) throws Exception {
-        if (userService.getAllUsers().isEmpty()) {
+        if (userService.getTotalUsersCount() == 0) {
             initializeData();
         }
     }
 
     private void initializeData() {
-        System.out.println("Initializing test data...");
+        System.out.println("Initializing test data (" + seedMode + " mode)...");
         
         // Initialize users
         initializeUsers();
@@ -48,96 +64,96 @@ public class DataInitializer implements CommandLineRunner {
         initializeBooks();
         
         // Initialize transactions
-        initializeTransactions();
+        if (isBulkMode()) {
+            initializeTransactionsInBulk();
+        } else {
+            initializeTransactions();
+        }
         
         System.out.println("Test data initialization completed!");
-        System.out.println("Users: " + userService.getAllUsers().size());
-        System.out.println("Books: " + bookService.getAllBooks().size());
-        System.out.println("Transactions: " + transactionService.getAllTransactions().size());
+        System.out.println("Users: " + userService.getTotalUsersCount());
+        System.out.println("Books: " + bookService.getTotalBooksCount());
+        System.out.println("Transactions: " + transactionService.getTotalTransactions());
+    }
+
+    private boolean isBulkMode() {
+        return "bulk".equalsIgnoreCase(seedMode);
     }
 
     private void initializeUsers() {
+        // Every regular user shares the default password, so hash it once
+        String defaultPassword = passwordEncoder.encode("password123");
+        
         List<User> users = Arrays.asList(
             // Admin users
-            createUser("admin","admin123", "admin@library.com", "Admin", "User", "ADMIN"),
-            createUser("librarian", "librarian123", "librarian@library.com", "Librarian", "Manager", "LIBRARIAN"),
+            createUser("admin", passwordEncoder.encode("admin123"), "admin@library.com", "Admin", "User", "ADMIN"),
+            createUser("librarian", passwordEncoder.encode("librarian123"), "librarian@library.com", "Librarian", "Manager", "LIBRARIAN"),
 
             // Regular users (46 more users to make 48 total)
-            createUser("john_doe", "john.doe@email.com", "John", "Doe", "USER"),
-            createUser("jane_smith", "jane.smith@email.com", "Jane", "Smith", "USER"),
-            createUser("mike_johnson", "mike.johnson@email.com", "Mike", "Johnson", "USER"),
-            createUser("sarah_wilson", "sarah.wilson@email.com", "Sarah", "Wilson", "USER"),
-            createUser("david_brown", "david.brown@email.com", "David", "Brown", "USER"),
-            createUser("emily_davis", "emily.davis@email.com", "Emily", "Davis", "USER"),
-            createUser("chris_miller", "chris.miller@email.com", "Chris", "Miller", "USER"),
-            createUser("lisa_taylor", "lisa.taylor@email.com", "Lisa", "Taylor", "USER"),
-            createUser("robert_clark", "robert.clark@email.com", "Robert", "Clark", "USER"),
-            createUser("amanda_white", "amanda.white@email.com", "Amanda", "White", "USER"),
-            createUser("kevin_harris", "kevin.harris@email.com", "Kevin", "Harris", "USER"),
-            createUser("jennifer_martin", "jennifer.martin@email.com", "Jennifer", "Martin", "USER"),
-            createUser("matthew_garcia", "matthew.garcia@email.com", "Matthew", "Garcia", "USER"),
-            createUser("michelle_rodriguez", "michelle.rodriguez@email.com", "Michelle", "Rodriguez", "USER"),
-            createUser("andrew_lewis", "andrew.lewis@email.com", "Andrew", "Lewis", "USER"),
-            createUser("stephanie_walker", "stephanie.walker@email.com", "Stephanie", "Walker", "USER"),
-            createUser("joshua_hall", "joshua.hall@email.com", "Joshua", "Hall", "USER"),
-            createUser("nicole_allen", "nicole.allen@email.com", "Nicole", "Allen", "USER"),
-            createUser("daniel_young", "daniel.young@email.com", "Daniel", "Young", "USER"),
-            createUser("jessica_king", "jessica.king@email.com", "Jessica", "King", "USER"),
-            createUser("brandon_wright", "brandon.wright@email.com", "Brandon", "Wright", "USER"),
-            createUser("ashley_lopez", "ashley.lopez@email.com", "Ashley", "Lopez", "USER"),
-            createUser("ryan_green", "ryan.green@email.com", "Ryan", "Green", "USER"),
-            createUser("megan_adams", "megan.adams@email.com", "Megan", "Adams", "USER"),
-            createUser("tyler_baker", "tyler.baker@email.com", "Tyler", "Baker", "USER"),
-            createUser("rachel_gonzalez", "rachel.gonzalez@email.com", "Rachel", "Gonzalez", "USER"),
-            createUser("nathan_nelson", "nathan.nelson@email.com", "Nathan", "Nelson", "USER"),
-            createUser("samantha_carter", "samantha.carter@email.com", "Samantha", "Carter", "USER"),
-            createUser("jacob_mitchell", "jacob.mitchell@email.com", "Jacob", "Mitchell", "USER"),
-            createUser("lauren_perez", "lauren.perez@email.com", "Lauren", "Perez", "USER"),
-            createUser("ethan_roberts", "ethan.roberts@email.com", "Ethan", "Roberts", "USER"),
-            createUser("kayla_turner", "kayla.turner@email.com", "Kayla", "Turner", "USER"),
-            createUser("caleb_phillips", "caleb.phillips@email.com", "Caleb", "Phillips", "USER"),
-            createUser("brittany_campbell", "brittany.campbell@email.com", "Brittany", "Campbell", "USER"),
-            createUser("noah_parker", "noah.parker@email.com", "Noah", "Parker", "USER"),
-            createUser("alexis_evans", "alexis.evans@email.com", "Alexis", "Evans", "USER"),
-            createUser("lucas_edwards", "lucas.edwards@email.com", "Lucas", "Edwards", "USER"),
-            createUser("courtney_collins", "courtney.collins@email.com", "Courtney", "Collins", "USER"),
-            createUser("gabriel_stewart", "gabriel.stewart@email.com", "Gabriel", "Stewart", "USER"),
-            createUser("brooke_sanchez", "brooke.sanchez@email.com", "Brooke", "Sanchez", "USER"),
-            createUser("isaac_morris", "isaac.morris@email.com", "Isaac", "Morris", "USER"),
-            createUser("sydney_rogers", "sydney.rogers@email.com", "Sydney", "Rogers", "USER"),
-            createUser("mason_reed", "mason.reed@email.com", "Mason", "Reed", "USER"),
-            createUser("jordan_cook", "jordan.cook@email.com", "Jordan", "Cook", "USER"),
-            createUser("taylor_bailey", "taylor.bailey@email.com", "Taylor", "Bailey", "USER"),
-            createUser("cameron_cooper", "cameron.cooper@email.com", "Cameron", "Cooper", "USER"),
-            createUser("morgan_richardson", "morgan.richardson@email.com", "Morgan", "Richardson", "USER"),
-            createUser("alex_cox", "alex.cox@email.com", "Alex", "Cox", "USER")
+            createUser("john_doe", defaultPassword, "john.doe@email.com", "John", "Doe", "USER"),
+            createUser("jane_smith", defaultPassword, "jane.smith@email.com", "Jane", "Smith", "USER"),
+            createUser("mike_johnson", defaultPassword, "mike.johnson@email.com", "Mike", "Johnson", "USER"),
+            createUser("sarah_wilson", defaultPassword, "sarah.wilson@email.com", "Sarah", "Wilson", "USER"),
+            createUser("david_brown", defaultPassword, "david.brown@email.com", "David", "Brown", "USER"),
+            createUser("emily_davis", defaultPassword, "emily.davis@email.com", "Emily", "Davis", "USER"),
+            createUser("chris_miller", defaultPassword, "chris.miller@email.com", "Chris", "Miller", "USER"),
+            createUser("lisa_taylor", defaultPassword, "lisa.taylor@email.com", "Lisa", "Taylor", "USER"),
+            createUser("robert_clark", defaultPassword, "robert.clark@email.com", "Robert", "Clark", "USER"),
+            createUser("amanda_white", defaultPassword, "amanda.white@email.com", "Amanda", "White", "USER"),
+            createUser("kevin_harris", defaultPassword, "kevin.harris@email.com", "Kevin", "Harris", "USER"),
+            createUser("jennifer_martin", defaultPassword, "jennifer.martin@email.com", "Jennifer", "Martin", "USER"),
+            createUser("matthew_garcia", defaultPassword, "matthew.garcia@email.com", "Matthew", "Garcia", "USER"),
+            createUser("michelle_rodriguez", defaultPassword, "michelle.rodriguez@email.com", "Michelle", "Rodriguez", "USER"),
+            createUser("andrew_lewis", defaultPassword, "andrew.lewis@email.com", "Andrew", "Lewis", "USER"),
+            createUser("stephanie_walker", defaultPassword, "stephanie.walker@email.com", "Stephanie", "Walker", "USER"),
+            createUser("joshua_hall", defaultPassword, "joshua.hall@email.com", "Joshua", "Hall", "USER"),
+            createUser("nicole_allen", defaultPassword, "nicole.allen@email.com", "Nicole", "Allen", "USER"),
+            createUser("daniel_young", defaultPassword, "daniel.young@email.com", "Daniel", "Young", "USER"),
+            createUser("jessica_king", defaultPassword, "jessica.king@email.com", "Jessica", "King", "USER"),
+            createUser("brandon_wright", defaultPassword, "brandon.wright@email.com", "Brandon", "Wright", "USER"),
+            createUser("ashley_lopez", defaultPassword, "ashley.lopez@email.com", "Ashley", "Lopez", "USER"),
+            createUser("ryan_green", defaultPassword, "ryan.green@email.com", "Ryan", "Green", "USER"),
+            createUser("megan_adams", defaultPassword, "megan.adams@email.com", "Megan", "Adams", "USER"),
+            createUser("tyler_baker", defaultPassword, "tyler.baker@email.com", "Tyler", "Baker", "USER"),
+            createUser("rachel_gonzalez", defaultPassword, "rachel.gonzalez@email.com", "Rachel", "Gonzalez", "USER"),
+            createUser("nathan_nelson", defaultPassword, "nathan.nelson@email.com", "Nathan", "Nelson", "USER"),
+            createUser("samantha_carter", defaultPassword, "samantha.carter@email.com", "Samantha", "Carter", "USER"),
+            createUser("jacob_mitchell", defaultPassword, "jacob.mitchell@email.com", "Jacob", "Mitchell", "USER"),
+            createUser("lauren_perez", defaultPassword, "lauren.perez@email.com", "Lauren", "Perez", "USER"),
+            createUser("ethan_roberts", defaultPassword, "ethan.roberts@email.com", "Ethan", "Roberts", "USER"),
+            createUser("kayla_turner", defaultPassword, "kayla.turner@email.com", "Kayla", "Turner", "USER"),
+            createUser("caleb_phillips", defaultPassword, "caleb.phillips@email.com", "Caleb", "Phillips", "USER"),
+            createUser("brittany_campbell", defaultPassword, "brittany.campbell@email.com", "Brittany", "Campbell", "USER"),
+            createUser("noah_parker", defaultPassword, "noah.parker@email.com", "Noah", "Parker", "USER"),
+            createUser("alexis_evans", defaultPassword, "alexis.evans@email.com", "Alexis", "Evans", "USER"),
+            createUser("lucas_edwards", defaultPassword, "lucas.edwards@email.com", "Lucas", "Edwards", "USER"),
+            createUser("courtney_collins", defaultPassword, "courtney.collins@email.com", "Courtney", "Collins", "USER"),
+            createUser("gabriel_stewart", defaultPassword, "gabriel.stewart@email.com", "Gabriel", "Stewart", "USER"),
+            createUser("brooke_sanchez", defaultPassword, "brooke.sanchez@email.com", "Brooke", "Sanchez", "USER"),
+            createUser("isaac_morris", defaultPassword, "isaac.morris@email.com", "Isaac", "Morris", "USER"),
+            createUser("sydney_rogers", defaultPassword, "sydney.rogers@email.com", "Sydney", "Rogers", "USER"),
+            createUser("mason_reed", defaultPassword, "mason.reed@email.com", "Mason", "Reed", "USER"),
+            createUser("jordan_cook", defaultPassword, "jordan.cook@email.com", "Jordan", "Cook", "USER"),
+            createUser("taylor_bailey", defaultPassword, "taylor.bailey@email.com", "Taylor", "Bailey", "USER"),
+            createUser("cameron_cooper", defaultPassword, "cameron.cooper@email.com", "Cameron", "Cooper", "USER"),
+            createUser("morgan_richardson", defaultPassword, "morgan.richardson@email.com", "Morgan", "Richardson", "USER"),
+            createUser("alex_cox", defaultPassword, "alex.cox@email.com", "Alex", "Cox", "USER")
         );
 
+        if (isBulkMode()) {
+            bulkDataSeeder.insertUsers(users);
+            return;
+        }
         for (User user : users) {
             userService.createUser(user);
         }
     }
 
-    private User createUser(String username, String email, String firstName, String lastName, String role) {
-        User user = new User();
-        user.setUsername(username);
-        user.setEmail(email);
-        user.setPassword(passwordEncoder.encode("password123"));
-        user.setFirstName(firstName);
-        user.setLastName(lastName);
-        user.setPhoneNumber("555-0123");
-        user.setAddress("123 Main St, City, State");
-        user.setRole(User.Role.valueOf(role));
-        user.setEnabled(true);
-        user.setCreatedAt(LocalDateTime.now().minusDays(new Random().nextInt(365)));
-        return user;
-    }
-
-    private User createUser(String username,String password ,String email, String firstName, String lastName, String role) {
+    private User createUser(String username, String encodedPassword, String email, String firstName, String lastName, String role) {
         User user = new User();
         user.setUsername(username);
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(encodedPassword);
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setPhoneNumber("555-0123");
@@ -215,6 +231,10 @@ public class DataInitializer implements CommandLineRunner {
             createBook("978-0140447163", "Ways of Seeing", "John Berger", "Art", 3)
         );
 
+        if (isBulkMode()) {
+            bulkDataSeeder.insertBooks(books);
+            return;
+        }
         for (Book book : books) {
             bookService.createBook(book);
         }
@@ -239,7 +259,7 @@ public class DataInitializer implements CommandLineRunner {
         Random random = new Random();
 
         // Create about 138 transactions (mix of completed and active)
-        for (int i = 0; i < 138; i++) {
+        for (int i = 0; i < seedTransactions; i++) {
             try {
                 User randomUser = users.get(random.nextInt(users.size()));
                 Book randomBook = books.get(random.nextInt(books.size()));
@@ -270,4 +290,18 @@ public class DataInitializer implements CommandLineRunner {
             }
         }
     }
+
+    /**
+     * Generate transactions directly in the table; seedTransactions can be
+     * raised to millions for scale testing
+     */
+    private void initializeTransactionsInBulk() {
+        IdRanges userIds = bulkDataSeeder.findUserIds();
+        BulkDataSeeder.BookStock books = bulkDataSeeder.findBookStock();
+        
+        // 70% completed, 30% active, spread over the last year
+        BulkDataSeeder.LoanProfile profile = new BulkDataSeeder.LoanProfile(0.3, 0.0, 365);
+        bulkDataSeeder.seedLoans(seedTransactions, userIds, books, profile,
+            random -> random.nextInt(books.size()), new Random());
+    }
 }
@@ -0,0 +1,68 @@
+package com.library.config;
+
+import java.util.Arrays;
+
+/**
+ * Ascending ids held as runs of consecutive values, with random access by
+ * position. Seeded rows get their ids a pooled block at a time, so a whole
+ * table usually collapses into a handful of runs instead of one boxed Long
+ * per row.
+ */
+public final class IdRanges {
+
+    private long[] starts = new long[16];
+    // Position of each run's first id
+    private long[] offsets = new long[16];
+    private int runs;
+    private long size;
+
+    /**
+     * Append an id; ids must arrive in ascending order
+     */
+    void add(long id) {
+        if (runs > 0) {
+            long expected = starts[runs - 1] + (size - offsets[runs - 1]);
+            if (id < expected) {
+                throw new IllegalArgumentException("Ids must be added in ascending order: " + id);
+            }
+            if (id == expected) {
+                size++;
+                return;
+            }
+        }
+        if (runs == starts.length) {
+            starts = Arrays.copyOf(starts, runs * 2);
+            offsets = Arrays.copyOf(offsets, runs * 2);
+        }
+        starts[runs] = id;
+        offsets[runs] = size;
+        runs++;
+        size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The id at {@code index} in ascending order
+     */
+    public long get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        int run = Arrays.binarySearch(offsets, 0, runs, index);
+        if (run < 0) {
+            run = -run - 2;
+        }
+        return starts[run] + (index - offsets[run]);
+    }
+
+    int runCount() {
+        return runs;
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already in the tables, so databases
+ * whose rows were written with IDENTITY columns keep working after the
+ * switch to pooled sequences. Runs once at startup before any inserts.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+        "users", "users_seq",
+        "books", "books_seq",
+        "transactions", "transactions_seq"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${spring.jpa.properties.library.id.allocation-size:50}")
+    private int allocationSize;
+
+    @PostConstruct
+    public void alignSequences() {
+        SequenceSupport sequenceSupport = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect()
+            .getSequenceSupport();
+
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            // The pooled optimizer hands out (value - allocationSize, value] for each sequence value
+            long required = maxId + allocationSize;
+            Long next = jdbcTemplate.queryForObject(sequenceSupport.getSequenceNextValString(sequence), Long.class);
+            if (next == null || next < required) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + required);
+                log.info("Restarted {} at {} to follow existing ids in {}", sequence, required, table);
+            }
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package com.library.config;
+
+import com.library.books.Book;
+import com.library.users.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Adds a large synthetic catalog on top of the regular seed data when the
+ * {@code synthetic} profile is active. Rows are generated and written in
+ * batches, so memory stays flat regardless of the transaction count. User
+ * and book ids are held as runs of consecutive ids, which stay a few
+ * entries long for seeded tables; only book stock costs a few bytes per book.
+ * Book popularity follows a Zipfian distribution and a configurable share
+ * of active loans is overdue.
+ */
+@Component
+@Profile("synthetic")
+@Order(2)
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[] CATEGORIES = {
+        "Programming", "Science", "Mathematics", "Fiction", "Biography",
+        "History", "Business", "Economics", "Art", "Philosophy"
+    };
+
+    @Autowired
+    private BulkDataSeeder bulkDataSeeder;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${app.synthetic.users:10000}")
+    private int userCount;
+
+    @Value("${app.synthetic.books:50000}")
+    private int bookCount;
+
+    @Value("${app.synthetic.transactions:1000000}")
+    private long transactionCount;
+
+    @Value("${app.synthetic.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${app.synthetic.active-share:0.1}")
+    private double activeShare;
+
+    @Value("${app.synthetic.overdue-share:0.2}")
+    private double overdueShare;
+
+    @Value("${app.synthetic.history-days:730}")
+    private int historyDays;
+
+    @Value("${app.synthetic.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        Random random = new Random(randomSeed);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        log.info("Generating synthetic data: {} users, {} books, {} transactions", userCount, bookCount, transactionCount);
+
+        long started = System.nanoTime();
+        generateUsers(runId, random);
+        logThroughput("users", userCount, started);
+
+        started = System.nanoTime();
+        generateBooks(runId, random);
+        logThroughput("books", bookCount, started);
+
+        IdRanges userIds = bulkDataSeeder.findUserIds();
+        BulkDataSeeder.BookStock books = bulkDataSeeder.findBookStock();
+        ZipfianSampler popularity = new ZipfianSampler(books.size(), zipfExponent);
+        BulkDataSeeder.LoanProfile profile = new BulkDataSeeder.LoanProfile(activeShare, overdueShare, historyDays);
+        bulkDataSeeder.seedLoans(transactionCount, userIds, books, profile, popularity::next, random);
+
+        log.info("Synthetic data generation completed");
+    }
+
+    private void generateUsers(String runId, Random random) {
+        String password = passwordEncoder.encode("password123");
+        LocalDateTime now = LocalDateTime.now();
+        List<User> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            String username = "synth_" + runId + "_" + i;
+            User user = new User(username, password, username + "@example.com", "Synthetic", "User " + i, User.Role.USER);
+            user.setEnabled(true);
+            user.setCreatedAt(now.minusDays(random.nextInt(Math.max(historyDays, 1))));
+            batch.add(user);
+            if (batch.size() >= batchSize) {
+                bulkDataSeeder.insertUsers(batch);
+                batch.clear();
+            }
+        }
+        bulkDataSeeder.insertUsers(batch);
+    }
+
+    private void generateBooks(String runId, Random random) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Book> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < bookCount; i++) {
+            int copies = 1 + random.nextInt(8);
+            Book book = new Book();
+            book.setIsbn("SYN-" + runId + "-" + i);
+            book.setTitle("Synthetic Title " + i);
+            book.setAuthor("Author " + random.nextInt(Math.max(bookCount / 5, 1)));
+            book.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            book.setTotalCopies(copies);
+            book.setAvailableCopies(copies);
+            book.setPrice(BigDecimal.valueOf(5 + random.nextInt(60)));
+            book.setPages(80 + random.nextInt(900));
+            book.setStatus(Book.BookStatus.AVAILABLE);
+            book.setCreatedAt(now.minusDays(random.nextInt(Math.max(historyDays, 1))));
+            batch.add(book);
+            if (batch.size() >= batchSize) {
+                bulkDataSeeder.insertBooks(batch);
+                batch.clear();
+            }
+        }
+        bulkDataSeeder.insertBooks(batch);
+    }
+
+    private static void logThroughput(String what, long count, long startedNanos) {
+        double seconds = Math.max((System.nanoTime() - startedNanos) / 1_000_000_000.0, 0.001);
+        log.info("Inserted {} synthetic {} ({} rows/s)", count, what, Math.round(count / seconds));
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.config;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent,
+ * so a few items take most of the draws. Uses a precomputed cumulative table
+ * and a binary search per draw.
+ */
+class ZipfianSampler {
+
+    private final double[] cumulative;
+
+    ZipfianSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Sampler needs at least one item");
+        }
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,281 @@
+package com.library.shared.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process read-through cache with LRU size bounding and a fixed
+ * time-to-live per entry. Null values are never cached.
+ *
+ * Every invalidation is stamped with a sequence number. A load remembers
+ * the sequence it started at and its result is only stored if the key was
+ * not invalidated since, so a load that raced with an invalidation of the
+ * same key does not put a stale value back while loads of other keys still
+ * land. Stamps are kept only while loads are in flight.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long sequence = 0;
+    private long clearedAt = 0;
+    private final Map<K, Long> invalidatedAt = new HashMap<>();
+    private final List<PredicateInvalidation<K>> predicateInvalidations = new ArrayList<>();
+    private int loadsInFlight = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maximumSize, Duration ttl) {
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value or load, cache and return it
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadStamp;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            loadStamp = beginLoad();
+        }
+        try {
+            V loaded = loader.apply(key);
+            if (loaded != null) {
+                put(key, loaded, loadStamp);
+            }
+            return loaded;
+        } finally {
+            endLoad();
+        }
+    }
+
+    /**
+     * Return the cached value without loading it
+     */
+    public synchronized V getIfPresent(K key) {
+        return lookup(key);
+    }
+
+    /**
+     * Return the cached values for the keys, loading every missing key in one call
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long loadStamp;
+        synchronized (this) {
+            for (K key : keys) {
+                V cached = lookup(key);
+                if (cached != null) {
+                    hits.increment();
+                    result.put(key, cached);
+                } else {
+                    misses.increment();
+                    missing.add(key);
+                }
+            }
+            if (missing.isEmpty()) {
+                return result;
+            }
+            loadStamp = beginLoad();
+        }
+        try {
+            loader.apply(missing).forEach((key, value) -> {
+                if (value != null) {
+                    put(key, value, loadStamp);
+                    result.put(key, value);
+                }
+            });
+        } finally {
+            endLoad();
+        }
+        return result;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        if (loadsInFlight > 0) {
+            invalidatedAt.put(key, ++sequence);
+            pruneIfOversized();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        if (loadsInFlight > 0) {
+            clearedAt = ++sequence;
+            invalidatedAt.clear();
+            predicateInvalidations.clear();
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<K> condition) {
+        entries.keySet().removeIf(condition);
+        if (loadsInFlight > 0) {
+            predicateInvalidations.add(new PredicateInvalidation<>(++sequence, condition));
+            pruneIfOversized();
+        }
+    }
+
+    /**
+     * Invalidate now and, when called inside a transaction, once more after it
+     * completes so readers cannot re-cache the pre-commit value
+     */
+    public void evict(K key) {
+        invalidate(key);
+        afterTransactionCompletion(() -> invalidate(key));
+    }
+
+    /**
+     * Same as {@link #evict(Object)} for every key matching the condition
+     */
+    public void evictIf(Predicate<K> condition) {
+        invalidateIf(condition);
+        afterTransactionCompletion(() -> invalidateIf(condition));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() { return hits.sum(); }
+
+    public long missCount() { return misses.sum(); }
+
+    public long evictionCount() { return evictions.sum(); }
+
+    /**
+     * Register hit, miss, eviction and size meters under {@code cache.*} with a {@code cache} tag
+     */
+    public BoundedTtlCache<K, V> bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::hitCount)
+            .tag("cache", cacheName).tag("result", "hit")
+            .description("Number of cache lookups that returned a cached value")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", this, BoundedTtlCache::missCount)
+            .tag("cache", cacheName).tag("result", "miss")
+            .description("Number of cache lookups that had to load the value")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", this, BoundedTtlCache::evictionCount)
+            .tag("cache", cacheName)
+            .description("Number of entries evicted by size or expiry")
+            .register(registry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size)
+            .tag("cache", cacheName)
+            .description("Number of entries currently cached")
+            .register(registry);
+        return this;
+    }
+
+    private static void afterTransactionCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private long beginLoad() {
+        loadsInFlight++;
+        return sequence;
+    }
+
+    /**
+     * Stamps only matter to loads still running, so drop them once none are
+     */
+    private synchronized void endLoad() {
+        if (--loadsInFlight == 0) {
+            invalidatedAt.clear();
+            predicateInvalidations.clear();
+        }
+    }
+
+    /**
+     * Under constant load the stamps may never drain; past the cache size
+     * fall back to rejecting every load in flight
+     */
+    private void pruneIfOversized() {
+        if (invalidatedAt.size() + predicateInvalidations.size() > maximumSize) {
+            clearedAt = sequence;
+            invalidatedAt.clear();
+            predicateInvalidations.clear();
+        }
+    }
+
+    private synchronized void put(K key, V value, long loadStamp) {
+        if (isInvalidatedSince(key, loadStamp)) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    private boolean isInvalidatedSince(K key, long loadStamp) {
+        if (clearedAt > loadStamp) {
+            return true;
+        }
+        Long keyStamp = invalidatedAt.get(key);
+        if (keyStamp != null && keyStamp > loadStamp) {
+            return true;
+        }
+        for (PredicateInvalidation<K> invalidation : predicateInvalidations) {
+            if (invalidation.stamp() > loadStamp && invalidation.condition().test(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+
+    private record PredicateInvalidation<K>(long stamp, Predicate<K> condition) {}
+}
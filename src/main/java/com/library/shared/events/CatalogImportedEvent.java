@@ -0,0 +1,44 @@
+package com.library.shared.events;
+
+import org.springframework.modulith.events.Externalized;
+
+import java.util.List;
+
+/**
+ * Event published once per committed batch of a catalog import, in place of
+ * one {@link BookAddedEvent} per row
+ */
+@Externalized("library.catalog.imported::#{#this.importId}")
+public record CatalogImportedEvent(
+    String importId,
+    int batchNumber,
+    List<AddedBook> added,
+    List<UpdatedBook> updated,
+    long timestamp
+) {
+    public CatalogImportedEvent(String importId, int batchNumber, List<AddedBook> added, List<UpdatedBook> updated) {
+        this(importId, batchNumber, added, updated, System.currentTimeMillis());
+    }
+
+    public record AddedBook(
+        Long bookId,
+        String title,
+        String author,
+        String isbn,
+        String category,
+        int totalCopies
+    ) {}
+
+    /**
+     * An existing book overwritten by the import; the deltas are new minus old
+     */
+    public record UpdatedBook(
+        Long bookId,
+        String title,
+        String author,
+        String category,
+        String previousCategory,
+        int totalCopiesDelta,
+        int availableCopiesDelta
+    ) {}
+}
@@ -0,0 +1,53 @@
+package com.library.shared.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page ordered by
+ * {@code createdAt DESC NULLS LAST, id DESC}. Rows written without a
+ * timestamp sort last and carry a null {@code createdAt}.
+ * Clients only see it as an opaque URL-safe token.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public KeysetCursor {
+        if (id == null) {
+            throw new IllegalArgumentException("Cursor needs a row id");
+        }
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}; blank means the first page
+     *
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String createdAt = raw.substring(0, separator);
+            return new KeysetCursor(
+                createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
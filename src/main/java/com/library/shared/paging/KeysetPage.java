@@ -0,0 +1,34 @@
+package com.library.shared.paging;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * Requested page size limited to 1..{@value #MAX_SIZE}
+     */
+    public static int clampSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    /**
+     * Build a page from a query that fetched one row more than {@code size}
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, size);
+        return new KeysetPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)).encode(), true);
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.shared.persistence;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator using the pooled optimizer with an allocation size
+ * taken from the {@value #ALLOCATION_SIZE_SETTING} Hibernate setting
+ * (set through {@code spring.jpa.properties.*}), so ids are handed out
+ * in blocks and inserts can be batched.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_SETTING = "library.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object configured = serviceRegistry.requireService(ConfigurationService.class)
+            .getSettings()
+            .get(ALLOCATION_SIZE_SETTING);
+        parameters.setProperty(INCREMENT_PARAM,
+            configured != null ? configured.toString() : String.valueOf(DEFAULT_ALLOCATION_SIZE));
+        parameters.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
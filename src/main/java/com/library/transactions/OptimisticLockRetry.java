@@ -0,0 +1,76 @@
+package com.library.transactions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and repeats it with jittered
+ * exponential backoff when it fails on a stale {@code @Version}.
+ * When a transaction is already active the work runs once, because the
+ * outer transaction is rollback-only after a conflict anyway.
+ * Only returns go through here, so the {@code operation} tag on the
+ * {@code transactions.optimistic.*} counters is always {@code return}.
+ */
+@Component
+class OptimisticLockRetry {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${transactions.optimistic-retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${transactions.optimistic-retry.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+
+    @Value("${transactions.optimistic-retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            counter("transactions.optimistic.attempts", operation, "Units of work started, retries included").increment();
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                counter("transactions.optimistic.conflicts", operation, "Units of work that hit a version conflict").increment();
+                if (attempt >= maxAttempts) {
+                    counter("transactions.optimistic.exhausted", operation, "Units of work that gave up after the last retry").increment();
+                    throw new RuntimeException("The book is being updated concurrently, please try again", e);
+                }
+                counter("transactions.optimistic.retries", operation, "Retries after a version conflict").increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying after a version conflict", e);
+        }
+    }
+
+    private Counter counter(String name, String operation, String description) {
+        return Counter.builder(name)
+            .tag("operation", operation)
+            .description(description)
+            .register(meterRegistry);
+    }
+}
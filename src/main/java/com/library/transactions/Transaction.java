@@ -1,14 +1,26 @@
 package com.library.transactions;
 
+import com.library.shared.persistence.PooledSequenceGenerator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+    uniqueConstraints = @UniqueConstraint(
+        name = Transaction.ACTIVE_LOAN_CONSTRAINT, columnNames = {"user_id", "active_book_id"}),
+    indexes = @Index(name = "idx_transactions_created_at_id", columnList = "created_at, id"))
 public class Transaction {
     
+    static final String ACTIVE_LOAN_CONSTRAINT = "uk_transactions_active_loan";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @GenericGenerator(name = "transactions_seq", type = PooledSequenceGenerator.class,
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "transactions_seq"))
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -26,12 +38,25 @@ public class Transaction {
     @Column(name = "borrowed_at")
     private LocalDateTime borrowedAt;
     
+    /**
+     * Book id while the loan is ACTIVE, null otherwise. Backs the unique
+     * constraint that allows one active loan per user and book; nulls never
+     * collide, so completed loans are not restricted.
+     */
+    @Column(name = "active_book_id")
+    private Long activeBookId;
+    
     @Column(name = "due_date")
     private LocalDateTime dueDate;
     
     @Column(name = "returned_at")
     private LocalDateTime returnedAt;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -52,11 +77,17 @@ public class Transaction {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        syncActiveBookId();
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        syncActiveBookId();
+    }
+    
+    private void syncActiveBookId() {
+        activeBookId = status == TransactionStatus.ACTIVE ? bookId : null;
     }
     
     // Constructors
@@ -80,6 +111,7 @@ public class Transaction {
     public void markAsReturned() {
         this.returnedAt = LocalDateTime.now();
         this.status = TransactionStatus.COMPLETED;
+        syncActiveBookId();
     }
     
     // Getters and Setters
@@ -147,6 +179,14 @@ public class Transaction {
         this.returnedAt = returnedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,14 +1,20 @@
 package com.library.transactions;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.library.users.User;
+import com.library.shared.paging.KeysetPage;
+import com.library.users.AuthenticatedUser;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,12 +24,36 @@ public class TransactionController {
     
     @Autowired
     private TransactionService transactionService;
+    
+    @Autowired
+    private TransactionExportService transactionExportService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<KeysetPage<Transaction>> getAllTransactions(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionsPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream the ledger as NDJSON or CSV without materialising it in memory
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Transaction.TransactionStatus status) {
+        StreamingResponseBody body = out -> transactionExportService.export(format, from, to, status, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.contentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + format.extension() + "\"")
+            .body(body);
     }
 
     @GetMapping("/user/{userId}")
@@ -36,8 +66,8 @@ public class TransactionController {
     @GetMapping("/my")
     public ResponseEntity<List<Transaction>> getMyTransactions() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = (User) authentication.getPrincipal();
-        List<Transaction> transactions = transactionService.getUserTransactionsEntity(currentUser.getId());
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        List<Transaction> transactions = transactionService.getUserTransactionsEntity(currentUser.id());
         return ResponseEntity.ok(transactions);
     }
 
@@ -59,9 +89,9 @@ public class TransactionController {
     public ResponseEntity<?> borrowBook(@PathVariable Long bookId) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = (User) authentication.getPrincipal();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             
-            Transaction transaction = transactionService.borrowBookEntity(currentUser.getId(), bookId);
+            Transaction transaction = transactionService.borrowBookEntity(currentUser.id(), bookId);
             return ResponseEntity.ok(transaction);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -72,9 +102,9 @@ public class TransactionController {
     public ResponseEntity<?> returnBook(@PathVariable Long bookId) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = (User) authentication.getPrincipal();
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
             
-            Transaction transaction = transactionService.returnBookEntity(currentUser.getId(), bookId);
+            Transaction transaction = transactionService.returnBookEntity(currentUser.id(), bookId);
             return ResponseEntity.ok(transaction);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -0,0 +1,127 @@
+package com.library.transactions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Streams the transaction ledger to an output stream as NDJSON or CSV.
+ * Rows are read through a forward-only cursor and detached once written,
+ * so heap use does not grow with the size of the export.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final int FLUSH_EVERY = TransactionRepository.EXPORT_FETCH_SIZE;
+
+    private static final String[] CSV_HEADER = {
+        "id", "userId", "bookId", "type", "status", "borrowedAt", "dueDate", "returnedAt", "createdAt", "updatedAt", "notes"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Write every transaction created in [from, to) with the given status;
+     * null filters are ignored
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, LocalDateTime from, LocalDateTime to,
+                       Transaction.TransactionStatus status, OutputStream out) throws IOException {
+        try (Stream<Transaction> rows = transactionRepository.streamForExport(from, to, status)) {
+            return format == Format.CSV ? writeCsv(rows, out) : writeNdjson(rows, out);
+        }
+    }
+
+    private long writeNdjson(Stream<Transaction> rows, OutputStream out) throws IOException {
+        long written = 0;
+        for (Iterator<Transaction> it = rows.iterator(); it.hasNext(); ) {
+            Transaction transaction = it.next();
+            out.write(objectMapper.writeValueAsBytes(transaction));
+            out.write('\n');
+            entityManager.detach(transaction);
+            if (++written % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return written;
+    }
+
+    private long writeCsv(Stream<Transaction> rows, OutputStream out) throws IOException {
+        // Not closed: closing would close the response stream before the container is done with it
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        CSVWriter csv = new CSVWriter(writer);
+        csv.writeNext(CSV_HEADER, false);
+        long written = 0;
+        for (Iterator<Transaction> it = rows.iterator(); it.hasNext(); ) {
+            Transaction transaction = it.next();
+            csv.writeNext(new String[] {
+                text(transaction.getId()),
+                text(transaction.getUserId()),
+                text(transaction.getBookId()),
+                text(transaction.getType()),
+                text(transaction.getStatus()),
+                text(transaction.getBorrowedAt()),
+                text(transaction.getDueDate()),
+                text(transaction.getReturnedAt()),
+                text(transaction.getCreatedAt()),
+                text(transaction.getUpdatedAt()),
+                text(transaction.getNotes())
+            }, false);
+            entityManager.detach(transaction);
+            if (++written % FLUSH_EVERY == 0) {
+                csv.flush();
+            }
+        }
+        csv.flush();
+        return written;
+    }
+
+    private static String text(Object value) {
+        return Objects.toString(value, "");
+    }
+}
@@ -1,7 +1,9 @@
 package com.library.transactions;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Module API for Transaction operations
@@ -34,6 +36,23 @@ public interface TransactionModuleAPI {
         boolean isOverdue
     ) {}
     
+    record BookBorrowCount(
+        Long bookId,
+        long borrowCount
+    ) {}
+    
+    record UserActivity(
+        Long userId,
+        long borrowCount,
+        long activeCount
+    ) {}
+    
+    record ActivityBucket(
+        LocalDateTime hourStart,
+        long borrowCount,
+        long returnCount
+    ) {}
+    
     record BorrowingPattern(
         String period,
         long borrowCount,
@@ -125,6 +144,36 @@ public interface TransactionModuleAPI {
      */
     java.util.Map<Long, Long> getBookBorrowCounts();
     
+    /**
+     * Get borrow counts for the given books (book ID -> borrow count); books never borrowed are left out
+     */
+    Map<Long, Long> getBookBorrowCounts(Collection<Long> bookIds);
+    
+    /**
+     * Get the most borrowed books, ordered by borrow count descending
+     */
+    List<BookBorrowCount> getMostBorrowedBooks(int limit);
+    
+    /**
+     * Get borrow and active loan counts for every user who has borrowed
+     */
+    List<UserActivity> getUserActivity();
+    
+    /**
+     * Get borrow and active loan counts for the given users; users who never borrowed are left out
+     */
+    List<UserActivity> getUserActivity(Collection<Long> userIds);
+    
+    /**
+     * Get overdue loan counts for the given users (user ID -> overdue count)
+     */
+    Map<Long, Long> getOverdueCountsByUser(Collection<Long> userIds);
+    
+    /**
+     * Get borrow and return counts per hour since the given time, oldest first
+     */
+    List<ActivityBucket> getHourlyActivity(LocalDateTime since);
+    
     /**
      * Get borrows in a specific month
      */
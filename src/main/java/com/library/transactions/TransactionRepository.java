@@ -1,17 +1,27 @@
 package com.library.transactions;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    int EXPORT_FETCH_SIZE = 500;
+    
     List<Transaction> findByUserId(Long userId);
     
     List<Transaction> findByBookId(Long bookId);
@@ -50,6 +60,120 @@ interface TransactionRepository extends JpaRepository<Transaction, Long> {
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.returnedAt >= :startDate AND t.returnedAt < :endDate")
     long countReturnsBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    @Query("SELECT AVG((t.returnedAt - t.borrowedAt) by second) FROM Transaction t " +
+           "WHERE t.status = 'COMPLETED' AND t.borrowedAt IS NOT NULL AND t.returnedAt IS NOT NULL")
+    Double findAverageBorrowingDurationSeconds();
+    
     @Query("SELECT t FROM Transaction t WHERE t.userId = :userId AND t.bookId = :bookId AND t.status = 'ACTIVE'")
     Optional<Transaction> findActiveTransactionByUserAndBook(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
+    /**
+     * Fill the active-loan key for ACTIVE rows written before the column existed
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.activeBookId = t.bookId WHERE t.status = 'ACTIVE' AND t.activeBookId IS NULL")
+    int backfillActiveBookIds();
+    
+    @Query("SELECT t.bookId AS bookId, COUNT(t) AS borrowCount FROM Transaction t " +
+           "WHERE t.type = 'BORROW' GROUP BY t.bookId")
+    List<BookBorrowCountView> countBorrowsByBook();
+    
+    @Query("SELECT t.bookId AS bookId, COUNT(t) AS borrowCount FROM Transaction t " +
+           "WHERE t.type = 'BORROW' AND t.bookId IN :bookIds GROUP BY t.bookId")
+    List<BookBorrowCountView> countBorrowsByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+    
+    @Query("SELECT t.bookId AS bookId, COUNT(t) AS borrowCount FROM Transaction t " +
+           "WHERE t.type = 'BORROW' GROUP BY t.bookId ORDER BY COUNT(t) DESC, t.bookId")
+    List<BookBorrowCountView> findMostBorrowedBooks(Pageable pageable);
+    
+    @Query("SELECT t.userId AS userId, COUNT(t) AS borrowCount, " +
+           "SUM(CASE WHEN t.status = 'ACTIVE' THEN 1 ELSE 0 END) AS activeCount " +
+           "FROM Transaction t WHERE t.type = 'BORROW' GROUP BY t.userId")
+    List<UserActivityView> countActivityByUser();
+    
+    @Query("SELECT t.userId AS userId, COUNT(t) AS borrowCount, " +
+           "SUM(CASE WHEN t.status = 'ACTIVE' THEN 1 ELSE 0 END) AS activeCount " +
+           "FROM Transaction t WHERE t.type = 'BORROW' AND t.userId IN :userIds GROUP BY t.userId")
+    List<UserActivityView> countActivityByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    @Query("SELECT t.userId AS userId, COUNT(t) AS overdueCount FROM Transaction t " +
+           "WHERE t.userId IN :userIds AND t.dueDate < :date AND t.status = 'ACTIVE' GROUP BY t.userId")
+    List<UserOverdueView> countOverdueByUser(@Param("userIds") Collection<Long> userIds, @Param("date") LocalDateTime date);
+    
+    @Query("SELECT cast(t.createdAt as LocalDate) AS activityDate, extract(hour from t.createdAt) AS activityHour, " +
+           "COUNT(t) AS activityCount FROM Transaction t WHERE t.type = 'BORROW' AND t.createdAt >= :since " +
+           "GROUP BY cast(t.createdAt as LocalDate), extract(hour from t.createdAt)")
+    List<HourlyActivityView> countBorrowsByHour(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT cast(t.returnedAt as LocalDate) AS activityDate, extract(hour from t.returnedAt) AS activityHour, " +
+           "COUNT(t) AS activityCount FROM Transaction t WHERE t.returnedAt >= :since " +
+           "GROUP BY cast(t.returnedAt as LocalDate), extract(hour from t.returnedAt)")
+    List<HourlyActivityView> countReturnsByHour(@Param("since") LocalDateTime since);
+    
+    /**
+     * Forward-only, read-only cursor over the ledger for exports; filters are optional
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t " +
+           "WHERE (:from IS NULL OR t.createdAt >= :from) " +
+           "AND (:to IS NULL OR t.createdAt < :to) " +
+           "AND (:status IS NULL OR t.status = :status) " +
+           "ORDER BY t.id")
+    Stream<Transaction> streamForExport(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("status") Transaction.TransactionStatus status);
+    
+    @Query("SELECT t FROM Transaction t ORDER BY t.createdAt DESC NULLS LAST, t.id DESC")
+    List<Transaction> findFirstPage(Pageable pageable);
+    
+    /**
+     * Rows strictly after a dated cursor in {@code createdAt DESC NULLS LAST, id DESC} order
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.createdAt < :createdAt " +
+           "OR (t.createdAt = :createdAt AND t.id < :id) OR t.createdAt IS NULL " +
+           "ORDER BY t.createdAt DESC NULLS LAST, t.id DESC")
+    List<Transaction> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Rows after a cursor on an undated row; those sort last, by id
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.createdAt IS NULL AND t.id < :id ORDER BY t.id DESC")
+    List<Transaction> findUndatedPageAfter(@Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Grouped row returned by the borrow count queries
+     */
+    interface BookBorrowCountView {
+        Long getBookId();
+        Long getBorrowCount();
+    }
+    
+    /**
+     * Grouped row returned by {@link #countActivityByUser()}
+     */
+    interface UserActivityView {
+        Long getUserId();
+        Long getBorrowCount();
+        Long getActiveCount();
+    }
+    
+    /**
+     * Grouped row returned by {@link #countOverdueByUser(Collection, LocalDateTime)}
+     */
+    interface UserOverdueView {
+        Long getUserId();
+        Long getOverdueCount();
+    }
+    
+    /**
+     * Hourly bucket returned by {@link #countBorrowsByHour(LocalDateTime)} and {@link #countReturnsByHour(LocalDateTime)}
+     */
+    interface HourlyActivityView {
+        LocalDate getActivityDate();
+        Integer getActivityHour();
+        Long getActivityCount();
+    }
 }
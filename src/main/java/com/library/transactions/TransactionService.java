@@ -4,19 +4,31 @@ import com.library.books.BookModuleAPI;
 import com.library.shared.events.BookBorrowedEvent;
 import com.library.shared.events.BookReturnedEvent;
 import com.library.users.UserModuleAPI;
+import com.library.shared.paging.KeysetCursor;
+import com.library.shared.paging.KeysetPage;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
 public class TransactionService implements TransactionModuleAPI {
     
+    private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
@@ -28,6 +40,43 @@ public class TransactionService implements TransactionModuleAPI {
     
     @Autowired
     private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillActiveLoanKeys() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> transactionRepository.backfillActiveBookIds());
+            if (updated != null && updated > 0) {
+                log.info("Backfilled active loan key for {} transactions", updated);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Existing data has more than one active loan of the same book per user; "
+                + "those rows are not covered by the active-loan constraint until resolved", e);
+        }
+    }
+
+    /**
+     * Keyset page ordered newest first; a null cursor starts from the top
+     */
+    public KeysetPage<Transaction> getTransactionsPage(String cursor, Integer size) {
+        int limit = KeysetPage.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        List<Transaction> rows;
+        if (after == null) {
+            rows = transactionRepository.findFirstPage(fetch);
+        } else if (after.createdAt() == null) {
+            rows = transactionRepository.findUndatedPageAfter(after.id(), fetch);
+        } else {
+            rows = transactionRepository.findPageAfter(after.createdAt(), after.id(), fetch);
+        }
+        return KeysetPage.of(rows, limit, row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+    }
 
     public List<Transaction> getAllTransactions() {
         return transactionRepository.findAll();
@@ -45,49 +94,68 @@ public class TransactionService implements TransactionModuleAPI {
         return transactionRepository.findOverdueTransactions(LocalDateTime.now());
     }
 
-    @Transactional
+    /**
+     * Borrow in its own transaction. Stock is taken by a conditional UPDATE and
+     * the loan is an INSERT, so nothing here can hit a version conflict.
+     */
     public Transaction borrowBookEntity(Long userId, Long bookId) {
-        // Check if user exists
-        if (!userModuleAPI.userExists(userId)) {
+        return transactionTemplate.execute(status -> borrowInTransaction(userId, bookId));
+    }
+
+    private Transaction borrowInTransaction(Long userId, Long bookId) {
+        // Check if user exists (loads the user once for the event as well)
+        var userInfo = userModuleAPI.getUserInfo(userId);
+        if (userInfo == null) {
             throw new RuntimeException("User not found");
         }
         
-        // Check if book is available
-        if (!bookModuleAPI.isBookAvailable(bookId)) {
-            throw new RuntimeException("Book is not available for borrowing");
-        }
-        
-        // Check if user already has this book
-        if (transactionRepository.findActiveTransactionByUserAndBook(userId, bookId).isPresent()) {
-            throw new RuntimeException("User already has this book borrowed");
-        }
-        
-        // Create transaction
+        // Insert first; the active-loan unique constraint rejects a second active loan of the same book
         Transaction transaction = new Transaction(userId, bookId, Transaction.TransactionType.BORROW);
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        Transaction savedTransaction;
+        try {
+            savedTransaction = transactionRepository.saveAndFlush(transaction);
+        } catch (DataIntegrityViolationException e) {
+            if (isActiveLoanConflict(e)) {
+                throw new RuntimeException("User already has this book borrowed");
+            }
+            throw e;
+        }
         
-        // Update book availability through module API
-        bookModuleAPI.borrowBook(bookId);
+        // Take a copy through module API; a failure rolls the loan back
+        var bookInfo = bookModuleAPI.borrowBook(bookId);
         
         // Publish event
-        var userInfo = userModuleAPI.getUserInfo(userId);
-        var bookInfo = bookModuleAPI.getBookInfo(bookId);
-        
-        if (userInfo != null && bookInfo != null) {
-            eventPublisher.publishEvent(new BookBorrowedEvent(
-                savedTransaction.getId(),
-                bookId,
-                userId,
-                bookInfo.title(),
-                userInfo.username()
-            ));
-        }
+        eventPublisher.publishEvent(new BookBorrowedEvent(
+            savedTransaction.getId(),
+            bookId,
+            userId,
+            bookInfo.title(),
+            userInfo.username()
+        ));
         
         return savedTransaction;
     }
 
-    @Transactional
+    private static boolean isActiveLoanConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null
+                    && constraint.toLowerCase(Locale.ROOT).contains(Transaction.ACTIVE_LOAN_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return in its own transaction, retried on optimistic-lock conflicts
+     */
     public Transaction returnBookEntity(Long userId, Long bookId) {
+        return optimisticLockRetry.execute("return",
+            () -> transactionTemplate.execute(status -> returnInTransaction(userId, bookId)));
+    }
+
+    private Transaction returnInTransaction(Long userId, Long bookId) {
         Transaction transaction = transactionRepository.findActiveTransactionByUserAndBook(userId, bookId)
             .orElseThrow(() -> new RuntimeException("No active borrowing transaction found"));
         
@@ -96,13 +164,12 @@ public class TransactionService implements TransactionModuleAPI {
         Transaction savedTransaction = transactionRepository.save(transaction);
         
         // Update book availability through module API
-        bookModuleAPI.returnBook(bookId);
+        var bookInfo = bookModuleAPI.returnBook(bookId);
         
         // Publish event
         var userInfo = userModuleAPI.getUserInfo(userId);
-        var bookInfo = bookModuleAPI.getBookInfo(bookId);
         
-        if (userInfo != null && bookInfo != null) {
+        if (userInfo != null) {
             eventPublisher.publishEvent(new BookReturnedEvent(
                 savedTransaction.getId(),
                 bookId,
@@ -128,12 +195,7 @@ public class TransactionService implements TransactionModuleAPI {
         long transactionsThisMonth = transactionRepository.countTransactionsAfter(startOfMonth);
         
         // Calculate average borrowing duration
-        List<Transaction> completedTransactionsList = transactionRepository.findByStatus(Transaction.TransactionStatus.COMPLETED);
-        double averageBorrowingDuration = completedTransactionsList.stream()
-            .filter(t -> t.getBorrowedAt() != null && t.getReturnedAt() != null)
-            .mapToLong(t -> Duration.between(t.getBorrowedAt(), t.getReturnedAt()).toDays())
-            .average()
-            .orElse(0.0);
+        double averageBorrowingDuration = getAverageBorrowingDuration();
         
         return new TransactionAnalytics(
             totalTransactions,
@@ -174,14 +236,12 @@ public class TransactionService implements TransactionModuleAPI {
     }
     
     @Override
-    @Transactional
     public TransactionInfo borrowBook(Long userId, Long bookId) {
         Transaction transaction = borrowBookEntity(userId, bookId);
         return mapToTransactionInfo(transaction);
     }
     
     @Override
-    @Transactional
     public TransactionInfo returnBook(Long userId, Long bookId) {
         Transaction transaction = returnBookEntity(userId, bookId);
         return mapToTransactionInfo(transaction);
@@ -232,24 +292,93 @@ public class TransactionService implements TransactionModuleAPI {
     
     @Override
     public double getAverageBorrowingDuration() {
-        List<Transaction> completedTransactions = transactionRepository.findByStatus(Transaction.TransactionStatus.COMPLETED);
-        return completedTransactions.stream()
-            .filter(t -> t.getBorrowedAt() != null && t.getReturnedAt() != null)
-            .mapToLong(t -> Duration.between(t.getBorrowedAt(), t.getReturnedAt()).toDays())
-            .average()
-            .orElse(0.0);
+        // Averaged in the database so no completed transaction is loaded
+        Double averageSeconds = transactionRepository.findAverageBorrowingDurationSeconds();
+        return averageSeconds != null ? averageSeconds / Duration.ofDays(1).toSeconds() : 0.0;
     }
     
     @Override
     public java.util.Map<Long, Long> getBookBorrowCounts() {
-        return transactionRepository.findAll().stream()
-            .filter(t -> t.getType() == Transaction.TransactionType.BORROW)
-            .collect(Collectors.groupingBy(
-                Transaction::getBookId,
-                Collectors.counting()
+        return transactionRepository.countBorrowsByBook().stream()
+            .collect(Collectors.toMap(
+                TransactionRepository.BookBorrowCountView::getBookId,
+                TransactionRepository.BookBorrowCountView::getBorrowCount
             ));
     }
     
+    @Override
+    public java.util.Map<Long, Long> getBookBorrowCounts(java.util.Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return java.util.Map.of();
+        }
+        return transactionRepository.countBorrowsByBookIdIn(bookIds).stream()
+            .collect(Collectors.toMap(
+                TransactionRepository.BookBorrowCountView::getBookId,
+                TransactionRepository.BookBorrowCountView::getBorrowCount
+            ));
+    }
+    
+    @Override
+    public List<BookBorrowCount> getMostBorrowedBooks(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return transactionRepository.findMostBorrowedBooks(PageRequest.of(0, limit)).stream()
+            .map(row -> new BookBorrowCount(row.getBookId(), row.getBorrowCount()))
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<UserActivity> getUserActivity() {
+        return transactionRepository.countActivityByUser().stream()
+            .map(row -> new UserActivity(
+                row.getUserId(),
+                row.getBorrowCount(),
+                row.getActiveCount() != null ? row.getActiveCount() : 0
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<UserActivity> getUserActivity(java.util.Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return transactionRepository.countActivityByUserIdIn(userIds).stream()
+            .map(row -> new UserActivity(
+                row.getUserId(),
+                row.getBorrowCount(),
+                row.getActiveCount() != null ? row.getActiveCount() : 0
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public java.util.Map<Long, Long> getOverdueCountsByUser(java.util.Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return java.util.Map.of();
+        }
+        return transactionRepository.countOverdueByUser(userIds, LocalDateTime.now()).stream()
+            .collect(Collectors.toMap(
+                TransactionRepository.UserOverdueView::getUserId,
+                TransactionRepository.UserOverdueView::getOverdueCount
+            ));
+    }
+    
+    @Override
+    public List<ActivityBucket> getHourlyActivity(LocalDateTime since) {
+        java.util.TreeMap<LocalDateTime, long[]> buckets = new java.util.TreeMap<>();
+        for (TransactionRepository.HourlyActivityView row : transactionRepository.countBorrowsByHour(since)) {
+            buckets.computeIfAbsent(hourStart(row), hour -> new long[2])[0] += row.getActivityCount();
+        }
+        for (TransactionRepository.HourlyActivityView row : transactionRepository.countReturnsByHour(since)) {
+            buckets.computeIfAbsent(hourStart(row), hour -> new long[2])[1] += row.getActivityCount();
+        }
+        return buckets.entrySet().stream()
+            .map(bucket -> new ActivityBucket(bucket.getKey(), bucket.getValue()[0], bucket.getValue()[1]))
+            .collect(Collectors.toList());
+    }
+    
     @Override
     public long getBorrowsInMonth(int year, int month) {
         LocalDateTime startOfMonth = LocalDateTime.of(year, month, 1, 0, 0, 0);
@@ -278,6 +407,10 @@ public class TransactionService implements TransactionModuleAPI {
         return transactionRepository.findActiveTransactionByUserAndBook(userId, bookId).isPresent();
     }
     
+    private static LocalDateTime hourStart(TransactionRepository.HourlyActivityView row) {
+        return row.getActivityDate().atTime(row.getActivityHour(), 0);
+    }
+    
     private TransactionInfo mapToTransactionInfo(Transaction transaction) {
         return new TransactionInfo(
             transaction.getId(),
@@ -2,8 +2,10 @@ package com.library.users;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,6 +25,9 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
     
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+    
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
         try {
@@ -35,6 +40,11 @@ public class AuthController {
     
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginDto loginDto) {
+        String username = loginDto.getUsernameOrEmail();
+        if (loginAttemptLimiter.isBlocked(username)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body("Too many failed login attempts, please try again later");
+        }
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -44,6 +54,8 @@ public class AuthController {
             
             SecurityContextHolder.getContext().setAuthentication(authentication);
             
+            loginAttemptLimiter.recordSuccess(username);
+            
             User userPrincipal = (User) authentication.getPrincipal();
             String jwt = jwtUtils.generateToken(userPrincipal);
             
@@ -52,6 +64,11 @@ public class AuthController {
                 userPrincipal.getUsername(), 
                 userPrincipal.getEmail(),
                 userPrincipal.getRole().name()));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (BadCredentialsException e) {
+            loginAttemptLimiter.recordFailure(username);
+            return ResponseEntity.badRequest().body("Invalid username/email or password");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Invalid username/email or password");
         }
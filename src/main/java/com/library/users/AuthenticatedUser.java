@@ -0,0 +1,74 @@
+package com.library.users;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal of an authenticated request: an immutable snapshot of the user's
+ * identity and access rather than the managed entity, so it can be cached and
+ * shared across requests. Controllers that need the full profile load it by
+ * {@link #id()}.
+ */
+public record AuthenticatedUser(Long id, String username, User.Role role, boolean enabled, int tokenVersion)
+        implements UserDetails {
+
+    static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), user.isEnabled(),
+            user.getTokenVersion());
+    }
+
+    /**
+     * Principal built from signed token claims without loading the row.
+     * Disabling a user bumps its token version, so a token that passed the
+     * version check belongs to an enabled user.
+     */
+    static AuthenticatedUser fromTokenClaims(Long id, String username, User.Role role, int tokenVersion) {
+        return new AuthenticatedUser(id, username, role, true, tokenVersion);
+    }
+
+    /**
+     * Bean-style accessor for SpEL such as {@code authentication.principal.id}
+     */
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -4,7 +4,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -26,6 +25,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Qualifier("customUserDetailsService")
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -33,12 +38,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwtToken = null;
+        JwtUtils.ValidatedToken token = null;
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtils.extractUsername(jwtToken);
+                token = jwtUtils.parseToken(jwtToken);
+                username = token.subject();
             } catch (IllegalArgumentException e) {
                 logger.error("Unable to get JWT Token");
             } catch (Exception e) {
@@ -47,11 +53,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            AuthenticatedUser principal = resolvePrincipal(token);
 
-            if (jwtUtils.validateToken(jwtToken, userDetails)) {
+            if (principal != null && principal.isEnabled() && jwtUtils.validateToken(token, principal)) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 usernamePasswordAuthenticationToken
                         .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
@@ -59,4 +65,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    /**
+     * In stateless claims mode the principal is built from the token alone;
+     * otherwise it is loaded through the principal cache.
+     * Returns null for a token revoked by a newer token version.
+     */
+    private AuthenticatedUser resolvePrincipal(JwtUtils.ValidatedToken token) {
+        if (jwtUtils.isStatelessClaimsEnabled() && token.hasPrincipalClaims()) {
+            if (token.tokenVersion() != tokenVersionRegistry.currentVersion(token.userId())) {
+                logger.debug("JWT Token has been revoked");
+                return null;
+            }
+            return AuthenticatedUser.fromTokenClaims(token.userId(), token.subject(), User.Role.valueOf(token.role()),
+                token.tokenVersion());
+        }
+        return principalCache.get(token.subject(), token.issuedAt(),
+            () -> AuthenticatedUser.of((User) userDetailsService.loadUserByUsername(token.subject())));
+    }
 }
@@ -1,12 +1,17 @@
 package com.library.users;
 
+import com.library.shared.cache.BoundedTtlCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,18 +20,88 @@ import java.util.function.Function;
 @Component
 public class JwtUtils {
     
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
     
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.stateless-claims.enabled:false}")
+    private boolean statelessClaims;
+    
+    @Value("${jwt.verified-cache.maximum-size:0}")
+    private int verifiedCacheSize;
+    
+    @Value("${jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Key signingKey;
+    
+    private JwtParser parser;
+    
+    private BoundedTtlCache<String, ValidatedToken> verifiedTokens;
+    
+    /**
+     * Claims of a token whose signature has been verified
+     */
+    public record ValidatedToken(String subject, Date issuedAt, Date expiration, Claims claims) {
+        
+        public boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
+        
+        public Long userId() {
+            Number userId = claims.get(CLAIM_USER_ID, Number.class);
+            return userId != null ? userId.longValue() : null;
+        }
+        
+        public String role() {
+            return claims.get(CLAIM_ROLE, String.class);
+        }
+        
+        public int tokenVersion() {
+            Number version = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+            return version != null ? version.intValue() : 0;
+        }
+        
+        /**
+         * Whether the token carries enough claims to build a principal on its own
+         */
+        public boolean hasPrincipalClaims() {
+            return userId() != null && role() != null;
+        }
+    }
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (verifiedCacheSize > 0) {
+            verifiedTokens = new BoundedTtlCache<String, ValidatedToken>(verifiedCacheSize, Duration.ofSeconds(verifiedCacheTtlSeconds))
+                .bindTo(meterRegistry, "jwtVerified");
+        }
+    }
+    
+    public boolean isStatelessClaimsEnabled() {
+        return statelessClaims;
     }
     
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (statelessClaims && userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
     
@@ -36,37 +111,59 @@ public class JwtUtils {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * Verify the signature and expiry once and return the claims.
+     * Recently verified tokens are served from a small LRU when
+     * {@code jwt.verified-cache.maximum-size} is positive.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public ValidatedToken parseToken(String token) {
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+        ValidatedToken validated = verifiedTokens.get(token, this::verify);
+        if (validated.isExpired()) {
+            verifiedTokens.invalidate(token);
+            throw new ExpiredJwtException(null, validated.claims(), "JWT expired at " + validated.expiration());
+        }
+        return validated;
+    }
+    
+    private ValidatedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new ValidatedToken(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(), claims);
+    }
+    
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).subject();
     }
     
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Date extractIssuedAt(String token) {
+        return parseToken(token).issuedAt();
     }
     
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public Date extractExpiration(String token) {
+        return parseToken(token).expiration();
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(parseToken(token).claims());
     }
     
     public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parseToken(token).isExpired();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseToken(token), userDetails);
+    }
+    
+    public Boolean validateToken(ValidatedToken token, UserDetails userDetails) {
+        return (token.subject().equals(userDetails.getUsername()) && !token.isExpired());
     }
 }
@@ -0,0 +1,67 @@
+package com.library.users;
+
+import com.library.shared.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Failed login counter per username. Once a username reaches the limit,
+ * logins for it are refused without hashing until the window expires.
+ * The window starts at the first failure.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.login.max-failed-attempts:5}")
+    private int maxFailedAttempts;
+
+    @Value("${security.login.lockout-seconds:300}")
+    private long lockoutSeconds;
+
+    @Value("${security.login.tracked-usernames:10000}")
+    private int trackedUsernames;
+
+    private BoundedTtlCache<String, AtomicInteger> failures;
+    private Counter fastRejects;
+
+    @PostConstruct
+    void init() {
+        failures = new BoundedTtlCache<String, AtomicInteger>(trackedUsernames, Duration.ofSeconds(lockoutSeconds))
+            .bindTo(meterRegistry, "loginFailures");
+        fastRejects = Counter.builder("auth.login.fast.rejects")
+            .description("Logins refused because the username had too many recent failures")
+            .register(meterRegistry);
+    }
+
+    public boolean isBlocked(String username) {
+        AtomicInteger count = failures.getIfPresent(key(username));
+        if (count != null && count.get() >= maxFailedAttempts) {
+            fastRejects.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordFailure(String username) {
+        failures.get(key(username), name -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void recordSuccess(String username) {
+        failures.invalidate(key(username));
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package com.library.users;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Raised when a login is refused without checking the password, either
+ * because the hashing pool is saturated or the username is locked out
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.users;
+
+import com.library.shared.cache.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of authenticated principals keyed by token subject and
+ * issued-at, so repeated requests with the same token skip the user lookup.
+ * Holds immutable {@link AuthenticatedUser} snapshots, never the entity.
+ * Entries for a username are dropped whenever its role or enabled flag changes.
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.principal-cache.maximum-size:10000}")
+    private int maximumSize;
+
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private BoundedTtlCache<PrincipalKey, AuthenticatedUser> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = new BoundedTtlCache<PrincipalKey, AuthenticatedUser>(maximumSize, Duration.ofSeconds(ttlSeconds))
+            .bindTo(meterRegistry, "principal");
+    }
+
+    public AuthenticatedUser get(String username, Date issuedAt, Supplier<AuthenticatedUser> loader) {
+        long issuedAtMillis = issuedAt != null ? issuedAt.getTime() : 0L;
+        return cache.get(new PrincipalKey(username, issuedAtMillis), key -> loader.get());
+    }
+
+    /**
+     * Drop every cached principal for the username, whatever token it came from
+     */
+    public void invalidate(String username) {
+        cache.evictIf(key -> key.username().equals(username));
+    }
+
+    private record PrincipalKey(String username, long issuedAtMillis) {}
+}
@@ -0,0 +1,97 @@
+package com.library.users;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Current token version per user for stateless claims mode.
+ * Only users whose version was ever bumped are held; everyone else is at 0.
+ * A token whose version claim differs from the current one is rejected.
+ *
+ * Versions are re-read from {@code users.token_version} once they are older
+ * than {@code jwt.token-version.refresh-seconds}, so a revocation on another
+ * node is honoured here within that interval. Changes made on this node
+ * apply at once. Versions only grow, so a refresh keeps the higher of the
+ * loaded and the held value.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.token-version.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    private volatile Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    private volatile long loadedAt = Long.MIN_VALUE;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    public void reload() {
+        refreshLock.lock();
+        try {
+            long started = System.nanoTime();
+            Map<Long, Integer> loaded = new ConcurrentHashMap<>();
+            for (UserRepository.TokenVersionView view : userRepository.findRevokedTokenVersions()) {
+                loaded.put(view.getId(), view.getTokenVersion());
+            }
+            // Keep versions recorded while loading; the snapshot may predate their commit
+            versions.forEach((userId, version) -> loaded.merge(userId, version, Math::max));
+            versions = loaded;
+            loadedAt = started;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public int currentVersion(Long userId) {
+        refreshIfStale();
+        return versions.getOrDefault(userId, 0);
+    }
+
+    public void record(Long userId, int version) {
+        Map<Long, Integer> held;
+        do {
+            // Repeat if a reload swapped the map after it was read
+            held = versions;
+            held.merge(userId, version, Math::max);
+        } while (held != versions);
+    }
+
+    /**
+     * Reload once the versions are older than the refresh interval. One caller
+     * reloads while the others keep reading the held versions; a failed reload
+     * is retried by the next caller.
+     */
+    private void refreshIfStale() {
+        if (loadedAt != Long.MIN_VALUE && System.nanoTime() - loadedAt < refreshSeconds * 1_000_000_000L) {
+            return;
+        }
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload token versions, keeping the held ones", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.library.users;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.library.shared.persistence.PooledSequenceGenerator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -13,11 +19,13 @@ import java.util.Collection;
 import java.util.Collections;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_created_at_id", columnList = "created_at, id"))
 public class User implements UserDetails {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @GenericGenerator(name = "users_seq", type = PooledSequenceGenerator.class,
+        parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_seq"))
     private Long id;
     
     @NotBlank(message = "Username is required")
@@ -49,6 +57,12 @@ public class User implements UserDetails {
     
     private boolean enabled = true;
     
+    // Revocation counter for stateless tokens; never part of the API
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -185,6 +199,21 @@ public class User implements UserDetails {
         this.enabled = enabled;
     }
     
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
+    /**
+     * Invalidate every token issued so far in stateless claims mode
+     */
+    public void incrementTokenVersion() {
+        this.tokenVersion++;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
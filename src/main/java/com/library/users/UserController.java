@@ -1,5 +1,6 @@
 package com.library.users;
 
+import com.library.shared.paging.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -7,8 +8,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*")
@@ -20,15 +19,22 @@ public class UserController {
     @GetMapping("/profile")
     public ResponseEntity<User> getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User currentUser = (User) authentication.getPrincipal();
-        return ResponseEntity.ok(currentUser);
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        // The principal is only a snapshot of identity and role; the profile comes from the row
+        return userService.getUserById(principal.id())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<KeysetPage<User>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -49,4 +55,15 @@ public class UserController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    @PutMapping("/{id}/enabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<User> updateUserEnabled(@PathVariable Long id, @RequestParam boolean enabled) {
+        try {
+            User updatedUser = userService.updateUserEnabled(id, enabled);
+            return ResponseEntity.ok(updatedUser);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
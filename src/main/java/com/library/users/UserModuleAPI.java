@@ -1,5 +1,8 @@
 package com.library.users;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Module API for User operations
  * This interface defines the public API that other modules can use
@@ -37,6 +40,11 @@ public interface UserModuleAPI {
      */
     UserInfo getUserInfo(Long userId);
     
+    /**
+     * Get user information for several users in one query, keyed by user ID
+     */
+    Map<Long, UserInfo> getUserInfos(Collection<Long> userIds);
+    
     /**
      * Get user information by username
      */
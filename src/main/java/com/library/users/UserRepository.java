@@ -1,5 +1,6 @@
 package com.library.users;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -38,4 +39,32 @@ interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u WHERE u.firstName LIKE %:name% OR u.lastName LIKE %:name%")
     List<User> findByNameContaining(@Param("name") String name);
+    
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<TokenVersionView> findRevokedTokenVersions();
+    
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC NULLS LAST, u.id DESC")
+    List<User> findFirstPage(Pageable pageable);
+    
+    /**
+     * Rows strictly after a dated cursor in {@code createdAt DESC NULLS LAST, id DESC} order
+     */
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt " +
+           "OR (u.createdAt = :createdAt AND u.id < :id) OR u.createdAt IS NULL " +
+           "ORDER BY u.createdAt DESC NULLS LAST, u.id DESC")
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Rows after a cursor on an undated row; those sort last, by id
+     */
+    @Query("SELECT u FROM User u WHERE u.createdAt IS NULL AND u.id < :id ORDER BY u.id DESC")
+    List<User> findUndatedPageAfter(@Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Row returned by {@link #findRevokedTokenVersions()}
+     */
+    interface TokenVersionView {
+        Long getId();
+        Integer getTokenVersion();
+    }
 }
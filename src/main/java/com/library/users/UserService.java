@@ -1,21 +1,33 @@
 package com.library.users;
 
+import com.library.shared.cache.BoundedTtlCache;
 import com.library.shared.events.UserRegisteredEvent;
+import com.library.shared.paging.KeysetCursor;
+import com.library.shared.paging.KeysetPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
-public class UserService implements UserDetailsService, UserModuleAPI {
+public class UserService implements UserDetailsService, UserDetailsPasswordService, UserModuleAPI {
     
     @Autowired
     private UserRepository userRepository;
@@ -25,6 +37,29 @@ public class UserService implements UserDetailsService, UserModuleAPI {
     
     @Autowired
     private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+    
+    @Value("${cache.user-info.maximum-size:10000}")
+    private int userInfoCacheSize;
+    
+    @Value("${cache.user-info.ttl-seconds:300}")
+    private long userInfoCacheTtlSeconds;
+    
+    private BoundedTtlCache<Long, UserInfo> userInfoCache;
+    
+    @PostConstruct
+    void initUserInfoCache() {
+        userInfoCache = new BoundedTtlCache<Long, UserInfo>(userInfoCacheSize, Duration.ofSeconds(userInfoCacheTtlSeconds))
+            .bindTo(meterRegistry, "userInfo");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -32,6 +67,20 @@ public class UserService implements UserDetailsService, UserModuleAPI {
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    /**
+     * Store a rehashed password after a login that used an outdated BCrypt cost
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User savedUser = userRepository.save(user);
+        principalCache.invalidate(savedUser.getUsername());
+        return savedUser;
+    }
+
     @Transactional
     public User registerUser(UserRegistrationDto dto) {
         if (userRepository.existsByUsername(dto.getUsername())) {
@@ -65,6 +114,24 @@ public class UserService implements UserDetailsService, UserModuleAPI {
         return savedUser;
     }
 
+    /**
+     * Keyset page ordered newest first; a null cursor starts from the top
+     */
+    public KeysetPage<User> getUsersPage(String cursor, Integer size) {
+        int limit = KeysetPage.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        List<User> rows;
+        if (after == null) {
+            rows = userRepository.findFirstPage(fetch);
+        } else if (after.createdAt() == null) {
+            rows = userRepository.findUndatedPageAfter(after.id(), fetch);
+        } else {
+            rows = userRepository.findPageAfter(after.createdAt(), after.id(), fetch);
+        }
+        return KeysetPage.of(rows, limit, row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -83,7 +150,26 @@ public class UserService implements UserDetailsService, UserModuleAPI {
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setRole(newRole);
-        return userRepository.save(user);
+        user.incrementTokenVersion();
+        User savedUser = userRepository.save(user);
+        userInfoCache.evict(userId);
+        principalCache.invalidate(savedUser.getUsername());
+        tokenVersionRegistry.record(userId, savedUser.getTokenVersion());
+        return savedUser;
+    }
+
+    @Transactional
+    public User updateUserEnabled(Long userId, boolean enabled) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        user.setEnabled(enabled);
+        user.incrementTokenVersion();
+        User savedUser = userRepository.save(user);
+        userInfoCache.evict(userId);
+        principalCache.invalidate(savedUser.getUsername());
+        tokenVersionRegistry.record(userId, savedUser.getTokenVersion());
+        return savedUser;
     }
 
     // Module API Implementation
@@ -111,27 +197,24 @@ public class UserService implements UserDetailsService, UserModuleAPI {
     
     @Override
     public UserInfo getUserInfo(Long userId) {
-        return userRepository.findById(userId)
-            .map(user -> new UserInfo(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getFullName(),
-                user.getRole().name()
-            ))
-            .orElse(null);
+        return userInfoCache.get(userId, id -> userRepository.findById(id)
+            .map(this::mapToUserInfo)
+            .orElse(null));
+    }
+    
+    @Override
+    public Map<Long, UserInfo> getUserInfos(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return userInfoCache.getAll(userIds, missing -> userRepository.findAllById(missing).stream()
+            .collect(Collectors.toMap(User::getId, this::mapToUserInfo)));
     }
     
     @Override
     public UserInfo getUserInfoByUsername(String username) {
         return userRepository.findByUsername(username)
-            .map(user -> new UserInfo(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getFullName(),
-                user.getRole().name()
-            ))
+            .map(this::mapToUserInfo)
             .orElse(null);
     }
     
@@ -183,6 +266,19 @@ public class UserService implements UserDetailsService, UserModuleAPI {
         if (user.getPassword() != null && !user.getPassword().startsWith("$2a$")) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userInfoCache.evict(savedUser.getId());
+        principalCache.invalidate(savedUser.getUsername());
+        return savedUser;
+    }
+    
+    private UserInfo mapToUserInfo(User user) {
+        return new UserInfo(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getFullName(),
+            user.getRole().name()
+        );
     }
 }
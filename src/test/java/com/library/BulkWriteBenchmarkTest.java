@@ -0,0 +1,158 @@
+package com.library;
+
+import com.library.books.Book;
+import com.library.books.BookService;
+import com.library.books.CatalogImportService;
+import com.library.books.CatalogImportStatus;
+import com.library.transactions.TransactionService;
+import com.library.users.User;
+import com.library.users.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of bulk borrows, batched entity inserts and a CSV import
+ * through the entity manager, with the statements Hibernate prepared for
+ * them. Skipped unless {@code -Dbenchmark=true} is set. Compare pooled ids
+ * with one sequence call per row by running it twice:
+ *
+ * <pre>
+ * mvn test -Dtest=BulkWriteBenchmarkTest -Dbenchmark=true
+ * mvn test -Dtest=BulkWriteBenchmarkTest -Dbenchmark=true -Dspring.jpa.properties.library.id.allocation-size=1
+ * </pre>
+ *
+ * An allocation size of 1 still lets Hibernate batch the inserts, so it is
+ * not an IDENTITY baseline. For that, run the borrow and insert phases on a
+ * checkout from before the entities moved to sequences.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "app.seed.transactions=0"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkWriteBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkWriteBenchmarkTest.class);
+
+    private static final int USERS = 100;
+    private static final int INSERT_BATCH = 500;
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    @Value("${benchmark.rows:10000}")
+    private int rows;
+
+    @Value("${spring.jpa.properties.library.id.allocation-size}")
+    private int allocationSize;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void borrowsAndImport() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Every user borrows every book once, so each book needs a copy per user
+        List<Long> userIds = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("bench" + i, ENCODED_PASSWORD, "bench" + i + "@test.local",
+                "Bench", String.valueOf(i), User.Role.USER);
+            userIds.add(userService.createUser(user).getId());
+        }
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < rows / USERS; i++) {
+            Book book = new Book("979-8-%07d-0".formatted(i), "Bench Book " + i, "Bench Author", "Benchmark", USERS);
+            bookIds.add(bookService.saveBook(book).getId());
+        }
+
+        statistics.clear();
+        long started = System.nanoTime();
+        for (Long bookId : bookIds) {
+            for (Long userId : userIds) {
+                transactionService.borrowBookEntity(userId, bookId);
+            }
+        }
+        report("borrow", bookIds.size() * USERS, started, statistics);
+
+        statistics.clear();
+        started = System.nanoTime();
+        for (int first = 0; first < rows; first += INSERT_BATCH) {
+            int from = first;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(from + INSERT_BATCH, rows); i++) {
+                    entityManager.persist(new Book("979-7-%07d-0".formatted(i), "Persisted Book " + i,
+                        "Bench Author", "Benchmark", 3));
+                }
+            });
+        }
+        report("insert", rows, started, statistics);
+
+        StringBuilder csv = new StringBuilder("isbn,title,author,category,total_copies\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("979-9-%07d-0,Imported Book %d,Import Author,Benchmark,3\n".formatted(i, i));
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "benchmark.csv", "text/csv",
+            csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        statistics.clear();
+        started = System.nanoTime();
+        String importId = catalogImportService.submit(file).importId();
+        CatalogImportStatus status;
+        do {
+            Thread.sleep(20);
+            status = catalogImportService.getStatus(importId).orElseThrow();
+        } while (status.state() == CatalogImportStatus.State.QUEUED || status.state() == CatalogImportStatus.State.RUNNING);
+        report("import", rows, started, statistics);
+
+        assertThat(status.state()).isEqualTo(CatalogImportStatus.State.COMPLETED);
+        assertThat(status.created()).isEqualTo(rows);
+    }
+
+    private void report(String phase, long count, long startedNanos, Statistics statistics) {
+        double seconds = Math.max((System.nanoTime() - startedNanos) / 1_000_000_000.0, 0.001);
+        log.info("Benchmark {} (allocation size {}): {} rows in {} ms, {} rows/s, {} statements prepared "
+                + "({} per row), {} inserts, {} updates, {} transactions",
+            phase, allocationSize, count, Math.round(seconds * 1000), Math.round(count / seconds),
+            statistics.getPrepareStatementCount(),
+            "%.2f".formatted((double) statistics.getPrepareStatementCount() / count),
+            statistics.getEntityInsertCount(), statistics.getEntityUpdateCount(),
+            statistics.getTransactionCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.analytics;
+
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.BookReturnedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActivityHistogramTest {
+
+    private final LocalDateTime thisHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    private TransactionModuleAPI transactionModuleAPI;
+    private ActivityHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        transactionModuleAPI = mock(TransactionModuleAPI.class);
+        histogram = new ActivityHistogram();
+        ReflectionTestUtils.setField(histogram, "transactionModuleAPI", transactionModuleAPI);
+    }
+
+    @Test
+    void eventsAddToTheBackfill() {
+        when(transactionModuleAPI.getHourlyActivity(any())).thenReturn(List.of(bucket(thisHour, 2, 1)));
+        histogram.rebuild();
+
+        histogram.on(borrowed());
+        histogram.on(returned());
+
+        assertThat(histogram.getBorrowsInLastDays(1)).isEqualTo(3);
+        assertThat(histogram.getReturnsInLastDays(1)).isEqualTo(2);
+        assertThat(histogram.getHourlyActivity(1)).extracting(AnalyticsDashboardDto.RecentActivityDto::getBorrowings)
+            .containsExactly(3L);
+    }
+
+    @Test
+    void eventsDuringRebuildAreNotCountedTwice() {
+        AtomicInteger loads = new AtomicInteger();
+        when(transactionModuleAPI.getHourlyActivity(any())).thenAnswer(invocation -> {
+            if (loads.getAndIncrement() == 0) {
+                // Both committed before the backfill was read, so it already includes them
+                histogram.on(borrowed());
+                histogram.on(returned());
+            }
+            return List.of(bucket(thisHour, 3, 1));
+        });
+
+        histogram.rebuild();
+
+        assertThat(loads).hasValue(2);
+        assertThat(histogram.getBorrowsInLastDays(7)).isEqualTo(3);
+        assertThat(histogram.getReturnsInLastDays(7)).isEqualTo(1);
+        assertThat(histogram.getDailyActivity(1)).extracting(AnalyticsDashboardDto.RecentActivityDto::getBorrowings)
+            .containsExactly(3L);
+    }
+
+    @Test
+    void bufferedEventsAreCountedWhenTheDaysCannotBeReloaded() {
+        AtomicInteger loads = new AtomicInteger();
+        when(transactionModuleAPI.getHourlyActivity(any())).thenAnswer(invocation -> {
+            if (loads.getAndIncrement() > 0) {
+                throw new RuntimeException("down");
+            }
+            histogram.on(borrowed());
+            return List.of(bucket(thisHour, 2, 0));
+        });
+
+        histogram.rebuild();
+
+        assertThat(histogram.getBorrowsInLastDays(1)).isEqualTo(3);
+    }
+
+    private static TransactionModuleAPI.ActivityBucket bucket(LocalDateTime hourStart, long borrows, long returns) {
+        return new TransactionModuleAPI.ActivityBucket(hourStart, borrows, returns);
+    }
+
+    private static BookBorrowedEvent borrowed() {
+        return new BookBorrowedEvent(null, 1L, 1L, "Book", "reader");
+    }
+
+    private static BookReturnedEvent returned() {
+        return new BookReturnedEvent(null, 1L, 1L, "Book", "reader", false);
+    }
+}
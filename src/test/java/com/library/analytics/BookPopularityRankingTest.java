@@ -0,0 +1,152 @@
+package com.library.analytics;
+
+import com.library.books.BookModuleAPI;
+import com.library.shared.events.BookAddedEvent;
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookPopularityRankingTest {
+
+    private final Map<Long, BookModuleAPI.BookInfo> catalog = new HashMap<>();
+    private BookModuleAPI bookModuleAPI;
+    private TransactionModuleAPI transactionModuleAPI;
+    private BookPopularityRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        bookModuleAPI = mock(BookModuleAPI.class);
+        transactionModuleAPI = mock(TransactionModuleAPI.class);
+        when(bookModuleAPI.getAllBookInfos()).thenAnswer(invocation -> List.copyOf(catalog.values()));
+        when(bookModuleAPI.getBookInfos(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, BookModuleAPI.BookInfo> found = new HashMap<>();
+            for (Object bookId : invocation.getArgument(0, Collection.class)) {
+                BookModuleAPI.BookInfo book = catalog.get((Long) bookId);
+                if (book != null) {
+                    found.put(book.id(), book);
+                }
+            }
+            return found;
+        });
+        ranking = new BookPopularityRanking();
+        ReflectionTestUtils.setField(ranking, "bookModuleAPI", bookModuleAPI);
+        ReflectionTestUtils.setField(ranking, "transactionModuleAPI", transactionModuleAPI);
+    }
+
+    @Test
+    void ranksByBorrowCountWithBoundedLists() {
+        for (long id = 1; id <= 10; id++) {
+            addToCatalog(id);
+        }
+        when(transactionModuleAPI.getBookBorrowCounts()).thenReturn(Map.of(3L, 7L, 5L, 9L, 8L, 1L));
+        ranking.rebuild();
+
+        assertThat(titles(ranking.getMostBorrowed(3))).containsExactly("Book 5", "Book 3", "Book 8");
+        // Never borrowed books tie at zero; the higher id comes first
+        assertThat(titles(ranking.getLeastBorrowed(3))).containsExactly("Book 10", "Book 9", "Book 7");
+    }
+
+    @Test
+    void eventsUpdateTheLists() {
+        addToCatalog(1L);
+        addToCatalog(2L);
+        when(transactionModuleAPI.getBookBorrowCounts()).thenReturn(Map.of(1L, 1L));
+        ranking.rebuild();
+        assertThat(titles(ranking.getMostBorrowed(1))).containsExactly("Book 1");
+
+        ranking.on(borrowed(2L));
+        ranking.on(borrowed(2L));
+        addToCatalog(3L);
+        ranking.on(new BookAddedEvent(3L, "Book 3", "Author", "isbn-3", "General", 1));
+
+        assertThat(ranking.getMostBorrowed(3)).extracting(AnalyticsDashboardDto.PopularBookDto::getBorrowCount)
+            .containsExactly(2L, 1L, 0L);
+        assertThat(titles(ranking.getLeastBorrowed(1))).containsExactly("Book 3");
+    }
+
+    @Test
+    void cachedListsArePatchedByBorrows() {
+        for (long id = 1; id <= 5; id++) {
+            addToCatalog(id);
+        }
+        when(transactionModuleAPI.getBookBorrowCounts()).thenReturn(Map.of(1L, 5L, 2L, 4L, 3L, 3L, 4L, 2L, 5L, 1L));
+        ranking.rebuild();
+        assertThat(titles(ranking.getMostBorrowed(2))).containsExactly("Book 1", "Book 2");
+        assertThat(titles(ranking.getLeastBorrowed(2))).containsExactly("Book 5", "Book 4");
+
+        // Book 3 passes the cutoff of the most borrowed list; the least borrowed list is untouched
+        ranking.on(borrowed(3L));
+        ranking.on(borrowed(3L));
+        ranking.on(borrowed(3L));
+        assertThat(selections()).hasSize(2);
+        assertThat(titles(ranking.getMostBorrowed(2))).containsExactly("Book 3", "Book 1");
+
+        // Book 5 moves down in the least borrowed list, which has to be selected again
+        ranking.on(borrowed(5L));
+        ranking.on(borrowed(5L));
+        assertThat(selections()).hasSize(1);
+        assertThat(titles(ranking.getLeastBorrowed(2))).containsExactly("Book 4", "Book 5");
+        assertThat(ranking.getMostBorrowed(2)).extracting(AnalyticsDashboardDto.PopularBookDto::getBorrowCount)
+            .containsExactly(6L, 5L);
+    }
+
+    @Test
+    void deletedBooksAreSkippedAndForgotten() {
+        for (long id = 1; id <= 4; id++) {
+            addToCatalog(id);
+        }
+        when(transactionModuleAPI.getBookBorrowCounts()).thenReturn(Map.of(1L, 4L, 2L, 3L, 3L, 2L, 4L, 1L));
+        ranking.rebuild();
+        assertThat(titles(ranking.getMostBorrowed(2))).containsExactly("Book 1", "Book 2");
+
+        catalog.remove(1L);
+
+        assertThat(titles(ranking.getMostBorrowed(2))).containsExactly("Book 2", "Book 3");
+        assertThat(titles(ranking.getLeastBorrowed(4))).containsExactly("Book 4", "Book 3", "Book 2");
+    }
+
+    @Test
+    void borrowDuringRebuildIsNotCountedTwice() {
+        addToCatalog(1L);
+        when(transactionModuleAPI.getBookBorrowCounts()).thenAnswer(invocation -> {
+            // The borrow committed before the grouped counts were read, so they already include it
+            ranking.on(borrowed(1L));
+            return Map.of(1L, 5L);
+        });
+        when(transactionModuleAPI.getBookBorrowCounts(anyCollection())).thenReturn(Map.of(1L, 5L));
+
+        ranking.rebuild();
+
+        assertThat(ranking.getMostBorrowed(1)).extracting(AnalyticsDashboardDto.PopularBookDto::getBorrowCount)
+            .containsExactly(5L);
+    }
+
+    private void addToCatalog(Long id) {
+        catalog.put(id, new BookModuleAPI.BookInfo(id, "isbn-" + id, "Book " + id, "Author", "General", 1, 1, true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<?, ?> selections() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(ranking, "selections");
+    }
+
+    private static BookBorrowedEvent borrowed(Long bookId) {
+        return new BookBorrowedEvent(null, bookId, 1L, "Book " + bookId, "reader");
+    }
+
+    private static List<String> titles(List<AnalyticsDashboardDto.PopularBookDto> books) {
+        return books.stream().map(AnalyticsDashboardDto.PopularBookDto::getTitle).toList();
+    }
+}
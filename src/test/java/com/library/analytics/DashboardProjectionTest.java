@@ -0,0 +1,101 @@
+package com.library.analytics;
+
+import com.library.books.BookModuleAPI;
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.UserRegisteredEvent;
+import com.library.transactions.TransactionModuleAPI;
+import com.library.users.UserModuleAPI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardProjectionTest {
+
+    private UserModuleAPI userModuleAPI;
+    private BookModuleAPI bookModuleAPI;
+    private TransactionModuleAPI transactionModuleAPI;
+    private DashboardProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        userModuleAPI = mock(UserModuleAPI.class);
+        bookModuleAPI = mock(BookModuleAPI.class);
+        transactionModuleAPI = mock(TransactionModuleAPI.class);
+        when(bookModuleAPI.getInventorySummary()).thenReturn(inventory(10));
+        projection = new DashboardProjection();
+        ReflectionTestUtils.setField(projection, "userModuleAPI", userModuleAPI);
+        ReflectionTestUtils.setField(projection, "bookModuleAPI", bookModuleAPI);
+        ReflectionTestUtils.setField(projection, "transactionModuleAPI", transactionModuleAPI);
+    }
+
+    @Test
+    void eventsDuringRebuildAreNotCountedTwice() {
+        AtomicInteger reads = new AtomicInteger();
+        when(transactionModuleAPI.getTotalTransactionsCount()).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() == 0) {
+                // Committed before the counts were read, so they already include it
+                projection.on(new BookBorrowedEvent(1L, 1L, 1L, "Book", "reader"));
+            }
+            return 5L;
+        });
+        when(bookModuleAPI.getInventorySummary()).thenReturn(inventory(9));
+
+        projection.rebuild();
+
+        assertThat(reads).hasValue(2);
+        assertThat(projection.getTotalTransactions()).isEqualTo(5);
+        assertThat(projection.getAvailableCopies()).isEqualTo(9);
+    }
+
+    @Test
+    void eventsAfterRebuildUpdateTheCounters() {
+        when(userModuleAPI.getTotalUsersCount()).thenReturn(2L);
+        when(userModuleAPI.getUserCountByRole("USER")).thenReturn(2L);
+        projection.rebuild();
+
+        projection.on(new UserRegisteredEvent(3L, "reader", "reader@test.local", "USER"));
+        projection.on(new BookBorrowedEvent(1L, 1L, 3L, "Book", "reader"));
+
+        assertThat(projection.getTotalUsers()).isEqualTo(3);
+        assertThat(projection.getUserCountByRole("USER")).isEqualTo(3);
+        assertThat(projection.getTotalTransactions()).isEqualTo(1);
+        assertThat(projection.getAvailableCopies()).isEqualTo(9);
+    }
+
+    @Test
+    void reconcilePicksUpChangesWithoutEvents() {
+        when(userModuleAPI.getUserCountByRole("ADMIN")).thenReturn(1L);
+        projection.rebuild();
+
+        // A role change publishes no event
+        when(userModuleAPI.getUserCountByRole("ADMIN")).thenReturn(2L);
+        projection.reconcile();
+
+        assertThat(projection.getUserCountByRole("ADMIN")).isEqualTo(2);
+    }
+
+    @Test
+    void failedReconcileKeepsTheCounters() {
+        when(userModuleAPI.getTotalUsersCount()).thenReturn(4L);
+        projection.rebuild();
+
+        when(userModuleAPI.getTotalUsersCount()).thenThrow(new RuntimeException("down"));
+        projection.reconcile();
+
+        assertThat(projection.getTotalUsers()).isEqualTo(4);
+        projection.on(new UserRegisteredEvent(5L, "late", "late@test.local", "USER"));
+        assertThat(projection.getTotalUsers()).isEqualTo(5);
+    }
+
+    private static BookModuleAPI.InventorySummary inventory(long availableCopies) {
+        return new BookModuleAPI.InventorySummary(1, 10, availableCopies, 10 - availableCopies, 0, 0,
+            Map.of("General", new BookModuleAPI.CategoryInventory(1, 10, availableCopies)));
+    }
+}
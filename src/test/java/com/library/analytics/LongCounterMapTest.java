@@ -0,0 +1,51 @@
+package com.library.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongCounterMapTest {
+
+    @Test
+    void addsPutsAndRemoves() {
+        LongCounterMap counts = new LongCounterMap(4);
+        counts.add(1, 2);
+        counts.add(1, 3);
+        counts.put(2, 7);
+        counts.remove(1);
+        counts.remove(42);
+
+        assertThat(counts.get(1)).isZero();
+        assertThat(counts.containsKey(1)).isFalse();
+        assertThat(counts.get(2)).isEqualTo(7);
+        assertThat(counts.containsKey(2)).isTrue();
+        assertThat(counts.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomUpdatesAndRemovals() {
+        LongCounterMap counts = new LongCounterMap(8);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // A small key range keeps probe runs long so removals shift entries
+            long key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                counts.remove(key);
+                expected.remove(key);
+            } else {
+                counts.add(key, 1);
+                expected.merge(key, 1L, Long::sum);
+            }
+        }
+
+        assertThat(counts.size()).isEqualTo(expected.size());
+        Map<Long, Long> actual = new HashMap<>();
+        counts.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+}
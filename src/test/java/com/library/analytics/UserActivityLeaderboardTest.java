@@ -0,0 +1,115 @@
+package com.library.analytics;
+
+import com.library.shared.events.BookBorrowedEvent;
+import com.library.shared.events.BookReturnedEvent;
+import com.library.transactions.TransactionModuleAPI;
+import com.library.users.UserModuleAPI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserActivityLeaderboardTest {
+
+    private TransactionModuleAPI transactionModuleAPI;
+    private UserActivityLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        UserModuleAPI userModuleAPI = mock(UserModuleAPI.class);
+        transactionModuleAPI = mock(TransactionModuleAPI.class);
+        when(userModuleAPI.getUserInfos(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, UserModuleAPI.UserInfo> found = new HashMap<>();
+            for (Object userId : invocation.getArgument(0, Collection.class)) {
+                Long id = (Long) userId;
+                found.put(id, new UserModuleAPI.UserInfo(id, "user" + id, "user" + id + "@test.local",
+                    "User " + id, "USER"));
+            }
+            return found;
+        });
+        when(transactionModuleAPI.getOverdueCountsByUser(anyCollection())).thenReturn(Map.of());
+        leaderboard = new UserActivityLeaderboard();
+        ReflectionTestUtils.setField(leaderboard, "userModuleAPI", userModuleAPI);
+        ReflectionTestUtils.setField(leaderboard, "transactionModuleAPI", transactionModuleAPI);
+    }
+
+    @Test
+    void eventsUpdateTheCachedTopList() {
+        when(transactionModuleAPI.getUserActivity()).thenReturn(List.of(
+            activity(1L, 3, 1), activity(2L, 2, 0), activity(3L, 1, 1)));
+        leaderboard.rebuild();
+        assertThat(usernames(leaderboard.getTopActiveUsers(2))).containsExactly("user1", "user2");
+
+        leaderboard.on(borrowed(3L));
+        leaderboard.on(borrowed(3L));
+        leaderboard.on(borrowed(3L));
+        leaderboard.on(returned(1L));
+
+        List<AnalyticsDashboardDto.TopActiveUserDto> top = leaderboard.getTopActiveUsers(2);
+        assertThat(usernames(top)).containsExactly("user3", "user1");
+        assertThat(top).extracting(AnalyticsDashboardDto.TopActiveUserDto::getTotalTransactions)
+            .containsExactly(4L, 3L);
+        assertThat(top).extracting(AnalyticsDashboardDto.TopActiveUserDto::getActiveTransactions)
+            .containsExactly(4L, 0L);
+    }
+
+    @Test
+    void loansDuringRebuildAreNotCountedTwice() {
+        when(transactionModuleAPI.getUserActivity()).thenAnswer(invocation -> {
+            // Both committed before the grouped counts were read, so they already include them
+            leaderboard.on(borrowed(1L));
+            leaderboard.on(returned(2L));
+            return List.of(activity(1L, 5, 2), activity(2L, 4, 0));
+        });
+        when(transactionModuleAPI.getUserActivity(anyCollection()))
+            .thenReturn(List.of(activity(1L, 5, 2), activity(2L, 4, 0)));
+
+        leaderboard.rebuild();
+
+        List<AnalyticsDashboardDto.TopActiveUserDto> top = leaderboard.getTopActiveUsers(2);
+        assertThat(top).extracting(AnalyticsDashboardDto.TopActiveUserDto::getTotalTransactions)
+            .containsExactly(5L, 4L);
+        assertThat(top).extracting(AnalyticsDashboardDto.TopActiveUserDto::getActiveTransactions)
+            .containsExactly(2L, 0L);
+    }
+
+    @Test
+    void buffersAreAppliedWhenCountsCannotBeReRead() {
+        when(transactionModuleAPI.getUserActivity()).thenAnswer(invocation -> {
+            leaderboard.on(borrowed(1L));
+            return List.of(activity(1L, 2, 0));
+        });
+        when(transactionModuleAPI.getUserActivity(anyCollection())).thenThrow(new RuntimeException("down"));
+
+        leaderboard.rebuild();
+
+        assertThat(leaderboard.getTopActiveUsers(1))
+            .extracting(AnalyticsDashboardDto.TopActiveUserDto::getTotalTransactions)
+            .containsExactly(3L);
+    }
+
+    private static TransactionModuleAPI.UserActivity activity(Long userId, long borrowCount, long activeCount) {
+        return new TransactionModuleAPI.UserActivity(userId, borrowCount, activeCount);
+    }
+
+    private static BookBorrowedEvent borrowed(Long userId) {
+        return new BookBorrowedEvent(null, 1L, userId, "Book", "user" + userId);
+    }
+
+    private static BookReturnedEvent returned(Long userId) {
+        return new BookReturnedEvent(null, 1L, userId, "Book", "user" + userId, false);
+    }
+
+    private static List<String> usernames(List<AnalyticsDashboardDto.TopActiveUserDto> users) {
+        return users.stream().map(AnalyticsDashboardDto.TopActiveUserDto::getUsername).toList();
+    }
+}
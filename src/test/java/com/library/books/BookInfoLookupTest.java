@@ -0,0 +1,57 @@
+package com.library.books;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk lookups back the analytics rankings, which treat a missing id as a deleted book
+ */
+@SpringBootTest
+class BookInfoLookupTest {
+
+    @Autowired
+    private BookModuleAPI bookModuleAPI;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void resolvesKnownIdsAndLeavesOutUnknownOnes() {
+        Long first = bookService.saveBook(new Book("979-1-00-000100-0", "First", "Author", "General", 1)).getId();
+        Long second = bookService.saveBook(new Book("979-1-00-000101-0", "Second", "Author", "General", 2)).getId();
+
+        Map<Long, BookModuleAPI.BookInfo> books = bookModuleAPI.getBookInfos(List.of(first, second, Long.MAX_VALUE));
+
+        assertThat(books).containsOnlyKeys(first, second);
+        assertThat(books.get(second).title()).isEqualTo("Second");
+        assertThat(books.get(second).totalCopies()).isEqualTo(2);
+        assertThat(bookModuleAPI.getBookInfos(List.of())).isEmpty();
+    }
+
+    @Test
+    void deletedBookNoLongerResolvesFromCache() {
+        Long bookId = bookService.saveBook(new Book("979-1-00-000102-0", "Gone Soon", "Author", "General", 1)).getId();
+        assertThat(bookModuleAPI.getBookInfos(List.of(bookId))).containsOnlyKeys(bookId);
+
+        bookService.deleteBook(bookId);
+
+        assertThat(bookModuleAPI.getBookInfos(List.of(bookId))).isEmpty();
+    }
+
+    @Test
+    void savedChangesAreVisibleAfterCaching() {
+        Book book = bookService.saveBook(new Book("979-1-00-000103-0", "Draft", "Author", "General", 1));
+        assertThat(bookModuleAPI.getBookInfos(List.of(book.getId())).get(book.getId()).title()).isEqualTo("Draft");
+
+        book.setTitle("Final");
+        bookService.saveBook(book);
+
+        assertThat(bookModuleAPI.getBookInfos(List.of(book.getId())).get(book.getId()).title()).isEqualTo("Final");
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.books;
+
+import com.library.shared.paging.KeysetPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging over rows that share a timestamp or have none, as rows
+ * written in one batch or inserted outside JPA do
+ */
+@SpringBootTest
+class BookKeysetPagingTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagesAcrossEqualAndMissingTimestampsWithoutSkipsOrDuplicates() {
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tied.add(saveBook("979-2-00-00020%d-0".formatted(i)));
+        }
+        List<Long> undated = List.of(saveBook("979-2-00-000210-0"), saveBook("979-2-00-000211-0"));
+        // Older than anything the seeder writes, so these rows end the listing
+        Timestamp sameInstant = Timestamp.valueOf(LocalDateTime.of(2000, 1, 1, 0, 0));
+        tied.forEach(id -> jdbcTemplate.update("UPDATE books SET created_at = ? WHERE id = ?", sameInstant, id));
+        undated.forEach(id -> jdbcTemplate.update("UPDATE books SET created_at = NULL WHERE id = ?", id));
+
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            // Three rows per page puts page boundaries inside the tied run
+            KeysetPage<Book> page = bookService.getBooksPage(cursor, 3);
+            page.items().forEach(book -> listed.add(book.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(listed).doesNotHaveDuplicates().hasSize((int) bookRepository.count());
+        List<Long> expectedTail = new ArrayList<>(tied.stream().sorted(Comparator.reverseOrder()).toList());
+        expectedTail.addAll(undated.stream().sorted(Comparator.reverseOrder()).toList());
+        assertThat(listed.subList(listed.size() - expectedTail.size(), listed.size())).isEqualTo(expectedTail);
+    }
+
+    private Long saveBook(String isbn) {
+        return bookService.saveBook(new Book(isbn, "Paged " + isbn, "Author", "General", 1)).getId();
+    }
+}
@@ -0,0 +1,178 @@
+package com.library.books;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        index = new BookSearchIndex();
+        ReflectionTestUtils.setField(index, "bookRepository", bookRepository);
+    }
+
+    @Test
+    void tokenizeLowercasesStripsAccentsAndSplitsOnPunctuation() {
+        assertThat(BookSearchIndex.tokenize("Café Société—Vol. 2")).containsExactly("cafe", "societe", "vol", "2");
+        assertThat(BookSearchIndex.tokenize("978-0-13-468599-1")).containsExactly("978", "0", "13", "468599", "1");
+        assertThat(BookSearchIndex.tokenize("  ")).isEmpty();
+        assertThat(BookSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void termMatchesAsPrefixFromTwoCharacters() {
+        index.indexAfterCommit(book(1L, "Programming Rust", "Jim Blandy"));
+
+        assertThat(search("prog")).containsExactly(1L);
+        assertThat(search("PROGRAMMING")).containsExactly(1L);
+        assertThat(search("p")).isEmpty();
+        assertThat(search("gram")).isEmpty();
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index.indexAfterCommit(book(1L, "Rust Programming", "Author One"));
+        index.indexAfterCommit(book(2L, "Java Programming", "Author Two"));
+
+        BookSearchIndex.Hits hits = index.search("rust prog", 0, 10);
+
+        assertThat(hits.bookIds()).containsExactly(1L);
+        assertThat(hits.total()).isEqualTo(1);
+        assertThat(search("rust java")).isEmpty();
+    }
+
+    @Test
+    void exactMatchRanksAbovePrefixMatch() {
+        index.indexAfterCommit(book(1L, "Rustic Tales", "Author"));
+        index.indexAfterCommit(book(2L, "Rust", "Author"));
+
+        assertThat(search("rust")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void titleMatchRanksAboveDescriptionMatch() {
+        Book described = book(1L, "Systems", "Author");
+        described.setDescription("A book about compilers");
+        index.indexAfterCommit(described);
+        index.indexAfterCommit(book(2L, "Compilers", "Author"));
+
+        assertThat(search("compilers")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void isbnMatchesWithOrWithoutHyphens() {
+        Book book = book(1L, "Effective Java", "Joshua Bloch");
+        book.setIsbn("978-0-13-468599-1");
+        index.indexAfterCommit(book);
+
+        assertThat(search("9780134685991")).containsExactly(1L);
+        assertThat(search("978-0-13-468599-1")).containsExactly(1L);
+    }
+
+    @Test
+    void prefixExpandsEveryMatchingToken() {
+        for (long id = 1; id <= 300; id++) {
+            index.indexAfterCommit(book(id, "ro%03d".formatted(id), "Author"));
+        }
+
+        BookSearchIndex.Hits hits = index.search("ro", 0, 10);
+
+        assertThat(hits.total()).isEqualTo(300);
+        assertThat(hits.bookIds()).hasSize(10);
+    }
+
+    @Test
+    void pagesDoNotOverlapAndCoverAllMatches() {
+        for (long id = 1; id <= 7; id++) {
+            index.indexAfterCommit(book(id, "Databases " + id, "Author"));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        for (int offset = 0; offset < 7; offset += 3) {
+            BookSearchIndex.Hits hits = index.search("databases", offset, 3);
+            assertThat(hits.total()).isEqualTo(7);
+            seen.addAll(hits.bookIds());
+        }
+
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(index.search("databases", 7, 3).bookIds()).isEmpty();
+    }
+
+    @Test
+    void topRankedOrdersByScoreThenIdAndSlicesTheRequestedPage() {
+        Map<Long, Float> scores = new LinkedHashMap<>();
+        scores.put(5L, 1.0f);
+        scores.put(3L, 3.0f);
+        scores.put(1L, 5.0f);
+        scores.put(4L, 3.0f);
+        scores.put(2L, 4.0f);
+
+        assertThat(BookSearchIndex.topRanked(scores, 0, 2)).containsExactly(1L, 2L);
+        assertThat(BookSearchIndex.topRanked(scores, 2, 2)).containsExactly(3L, 4L);
+        assertThat(BookSearchIndex.topRanked(scores, 4, 2)).containsExactly(5L);
+        assertThat(BookSearchIndex.topRanked(scores, 5, 2)).isEmpty();
+    }
+
+    @Test
+    void updateReplacesOldTextAndRemoveDropsTheBook() {
+        index.indexAfterCommit(book(1L, "Old Title", "Author"));
+        index.indexAfterCommit(book(1L, "New Title", "Author"));
+
+        assertThat(search("old")).isEmpty();
+        assertThat(search("new")).containsExactly(1L);
+
+        index.removeAfterCommit(1L);
+
+        assertThat(search("new")).isEmpty();
+    }
+
+    @Test
+    void updatesCommittedDuringRebuildAreReplayedOntoTheNewIndex() {
+        when(bookRepository.findAllSearchable()).thenAnswer(invocation -> {
+            // Commits that land after the snapshot was read
+            index.indexAfterCommit(book(2L, "Added Meanwhile", "Author"));
+            index.removeAfterCommit(1L);
+            return List.of(view(1L, "Deleted Meanwhile", "Author"));
+        });
+
+        index.rebuild();
+
+        assertThat(search("added")).containsExactly(2L);
+        assertThat(search("deleted")).isEmpty();
+    }
+
+    private List<Long> search(String query) {
+        return index.search(query, 0, 50).bookIds();
+    }
+
+    private static Book book(Long id, String title, String author) {
+        Book book = new Book("isbn-" + id, title, author, "General", 1);
+        book.setId(id);
+        return book;
+    }
+
+    private static BookRepository.SearchableBookView view(Long id, String title, String author) {
+        return new BookRepository.SearchableBookView() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public String getAuthor() { return author; }
+            public String getIsbn() { return "isbn-" + id; }
+            public String getCategory() { return "General"; }
+            public String getDescription() { return null; }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.library.books;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSuggestIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        index = new BookSuggestIndex();
+        ReflectionTestUtils.setField(index, "bookRepository", bookRepository);
+    }
+
+    @Test
+    void normalizeCollapsesPunctuationAndAccents() {
+        assertThat(BookSuggestIndex.normalize("  Le Petit   Prince—Édition ")).isEqualTo("le petit prince edition");
+        assertThat(BookSuggestIndex.normalize("!!")).isEmpty();
+    }
+
+    @Test
+    void matchesTitleAndAuthorFromAnyWordStart() {
+        rebuildWith(view(1L, "Harry Potter and the Philosopher's Stone", "J. K. Rowling", 0));
+
+        assertThat(ids(index.suggest("harry pot", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("potter", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("rowl", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("arry", 10))).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void ranksByBorrowCountAndReturnsEachBookOnce() {
+        rebuildWith(
+            view(1L, "Dune", "Frank Herbert", 3),
+            view(2L, "Dune Messiah", "Frank Herbert", 10),
+            view(3L, "Dubliners", "James Joyce", 7));
+
+        assertThat(ids(index.suggest("du", 10))).containsExactly(2L, 3L, 1L);
+        assertThat(ids(index.suggest("dune", 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.suggest("frank", 1))).containsExactly(2L);
+    }
+
+    @Test
+    void borrowPromotesBookIntoCachedShortPrefix() {
+        List<BookRepository.SuggestableBookView> books = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            books.add(view(id, "Book " + id, "Author", id));
+        }
+        rebuildWith(books.toArray(BookRepository.SuggestableBookView[]::new));
+
+        // Caches the top 20 for "b", which leaves out books 1 to 5
+        assertThat(ids(index.suggest("b", 20))).hasSize(20).doesNotContain(1L).startsWith(25L);
+
+        for (int i = 0; i < 30; i++) {
+            index.recordBorrowAfterCommit(1L);
+        }
+
+        List<BookSuggestion> top = index.suggest("b", 20);
+        assertThat(top).hasSize(20);
+        assertThat(top.get(0).bookId()).isEqualTo(1L);
+        assertThat(top.get(0).borrowCount()).isEqualTo(31);
+        assertThat(ids(top)).doesNotContain(6L);
+    }
+
+    @Test
+    void borrowReordersBookAlreadyInCachedList() {
+        rebuildWith(
+            view(1L, "Alpha", "Author", 5),
+            view(2L, "Almanac", "Author", 1));
+        assertThat(ids(index.suggest("al", 10))).containsExactly(1L, 2L);
+
+        for (int i = 0; i < 5; i++) {
+            index.recordBorrowAfterCommit(2L);
+        }
+
+        assertThat(ids(index.suggest("al", 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void saveKeepsBorrowCountAndDeleteRemovesSuggestions() {
+        rebuildWith(view(1L, "Old Title", "Author", 4));
+
+        Book renamed = new Book("isbn-1", "New Title", "Author", "General", 1);
+        renamed.setId(1L);
+        index.indexAfterCommit(renamed);
+
+        assertThat(index.suggest("old", 10)).isEmpty();
+        assertThat(index.suggest("new", 10)).singleElement()
+            .satisfies(suggestion -> assertThat(suggestion.borrowCount()).isEqualTo(4));
+
+        index.removeAfterCommit(1L);
+
+        assertThat(index.suggest("new", 10)).isEmpty();
+    }
+
+    @Test
+    void borrowDuringRebuildIsNotCountedTwice() {
+        when(bookRepository.findAllSuggestable()).thenAnswer(invocation -> {
+            // The borrow committed before the snapshot read, so the snapshot already counts it
+            index.recordBorrowAfterCommit(1L);
+            return List.of(view(1L, "Snapshot", "Author", 5));
+        });
+        when(bookRepository.findSuggestableByIdIn(anyCollection()))
+            .thenReturn(List.of(view(1L, "Snapshot", "Author", 5)));
+
+        index.rebuild();
+
+        assertThat(index.suggest("snap", 10)).singleElement()
+            .satisfies(suggestion -> assertThat(suggestion.borrowCount()).isEqualTo(5));
+    }
+
+    private void rebuildWith(BookRepository.SuggestableBookView... books) {
+        when(bookRepository.findAllSuggestable()).thenReturn(List.of(books));
+        index.rebuild();
+    }
+
+    private static List<Long> ids(List<BookSuggestion> suggestions) {
+        return suggestions.stream().map(BookSuggestion::bookId).toList();
+    }
+
+    private static BookRepository.SuggestableBookView view(Long id, String title, String author, long borrowCount) {
+        return new BookRepository.SuggestableBookView() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public String getAuthor() { return author; }
+            public Long getBorrowCount() { return borrowCount; }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.library.books;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+class CatalogImportServiceTest {
+
+    private static final String HEADER = "ISBN,Title,Author,Category,Total_Copies\n";
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void upsertsByIsbnAndReportsRowErrors() throws Exception {
+        bookService.saveBook(new Book("979-1-00-000001-0", "Old Title", "Old Author", "Fiction", 2));
+
+        CatalogImportStatus status = importCsv(HEADER
+            + "979-1-00-000002-0,New Book,New Author,Science,3\n"
+            + "979-1-00-000003-0,,Nobody,Science,1\n"
+            + "979-1-00-000001-0,Updated Title,Old Author,Fiction,4\n"
+            + "979-1-00-000004-0,Bad Copies,Someone,Science,abc\n"
+            + "979-1-00-000001-0,Second Edition,Old Author,History,5\n");
+
+        assertThat(status.state()).isEqualTo(CatalogImportStatus.State.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(5);
+        assertThat(status.created()).isEqualTo(1);
+        assertThat(status.updated()).isEqualTo(2);
+        assertThat(status.failed()).isEqualTo(2);
+        assertThat(status.batchesCommitted()).isEqualTo(2);
+        assertThat(status.errors()).containsExactly(
+            new CatalogImportStatus.RowError(3, "979-1-00-000003-0", "Title is required"),
+            new CatalogImportStatus.RowError(5, "979-1-00-000004-0", "Invalid totalcopies 'abc'"));
+
+        Book created = bookService.getBookByIsbn("979-1-00-000002-0").orElseThrow();
+        assertThat(created.getTitle()).isEqualTo("New Book");
+        assertThat(created.getAvailableCopies()).isEqualTo(3);
+
+        // The later batch overwrites the earlier one
+        Book updated = bookService.getBookByIsbn("979-1-00-000001-0").orElseThrow();
+        assertThat(updated.getTitle()).isEqualTo("Second Edition");
+        assertThat(updated.getCategory()).isEqualTo("History");
+        assertThat(updated.getTotalCopies()).isEqualTo(5);
+        assertThat(updated.getAvailableCopies()).isEqualTo(5);
+
+        assertThat(bookService.getBookByIsbn("979-1-00-000003-0")).isEmpty();
+        assertThat(bookService.getBookByIsbn("979-1-00-000004-0")).isEmpty();
+    }
+
+    @Test
+    void lastRowWinsWhenIsbnRepeatsWithinBatch() throws Exception {
+        CatalogImportStatus status = importCsv(HEADER
+            + "979-1-00-000010-0,First Draft,Author,Science,1\n"
+            + "979-1-00-000010-0,Final Draft,Author,Science,2\n");
+
+        assertThat(status.state()).isEqualTo(CatalogImportStatus.State.COMPLETED);
+        assertThat(status.created()).isEqualTo(1);
+        assertThat(status.errors()).containsExactly(
+            new CatalogImportStatus.RowError(2, "979-1-00-000010-0", "Duplicate ISBN, superseded by line 3"));
+        assertThat(bookService.getBookByIsbn("979-1-00-000010-0").orElseThrow().getTitle()).isEqualTo("Final Draft");
+    }
+
+    @Test
+    void rejectsTotalBelowCopiesOnLoan() throws Exception {
+        Book book = new Book("979-1-00-000020-0", "On Loan", "Author", "Science", 3);
+        book.setAvailableCopies(1);
+        bookService.saveBook(book);
+
+        CatalogImportStatus status = importCsv(HEADER + "979-1-00-000020-0,On Loan,Author,Science,1\n");
+
+        assertThat(status.updated()).isZero();
+        assertThat(status.errors()).containsExactly(
+            new CatalogImportStatus.RowError(2, "979-1-00-000020-0", "Total copies 1 is below the 2 copies on loan"));
+        assertThat(bookService.getBookByIsbn("979-1-00-000020-0").orElseThrow().getTotalCopies()).isEqualTo(3);
+    }
+
+    @Test
+    void failsWhenRequiredColumnIsMissing() throws Exception {
+        CatalogImportStatus status = importCsv("isbn,title,author,category\n979-1-00-000030-0,Title,Author,Science\n");
+
+        assertThat(status.state()).isEqualTo(CatalogImportStatus.State.FAILED);
+        assertThat(status.message()).isEqualTo("Missing required columns: totalcopies");
+        assertThat(status.rowsRead()).isZero();
+    }
+
+    private CatalogImportStatus importCsv(String csv) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv",
+            csv.getBytes(StandardCharsets.UTF_8));
+        String importId = catalogImportService.submit(file).importId();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            CatalogImportStatus status = catalogImportService.getStatus(importId).orElseThrow();
+            if (!List.of(CatalogImportStatus.State.QUEUED, CatalogImportStatus.State.RUNNING).contains(status.state())) {
+                return status;
+            }
+            assertThat(System.currentTimeMillis()).as("import finished in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.config;
+
+import com.library.books.Book;
+import com.library.books.BookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk seeding draws ids a pooled block per sequence call, alongside the entity manager
+ */
+@SpringBootTest(properties = {
+    "app.seed.mode=bulk",
+    "app.seed.transactions=500"
+})
+class BulkDataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookService bookService;
+
+    @Value("${spring.jpa.properties.library.id.allocation-size}")
+    private int allocationSize;
+
+    @Test
+    void seededIdsAreDenseAndDoNotCollideWithEntityIds() {
+        Map<String, Object> ids = jdbcTemplate.queryForMap(
+            "SELECT COUNT(*) AS rows_seeded, MIN(id) AS min_id, MAX(id) AS max_id FROM transactions");
+        long rows = ((Number) ids.get("rows_seeded")).longValue();
+        long span = ((Number) ids.get("max_id")).longValue() - ((Number) ids.get("min_id")).longValue() + 1;
+
+        assertThat(rows).isEqualTo(500);
+        // One block per sequence call instead of one block per row
+        assertThat(span).isLessThan(rows + allocationSize);
+
+        Long seededBooks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        Book saved = bookService.saveBook(new Book("979-4-00-000400-0", "After Seeding", "Author", "General", 1));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class)).isEqualTo(seededBooks + 1);
+        assertThat(saved.getId()).isPositive();
+    }
+}
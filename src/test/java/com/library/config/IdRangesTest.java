@@ -0,0 +1,51 @@
+package com.library.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdRangesTest {
+
+    @Test
+    void consecutiveIdsCollapseIntoRuns() {
+        IdRanges ids = new IdRanges();
+        for (long id = 1; id <= 1000; id++) {
+            ids.add(id);
+        }
+        for (long id = 1051; id <= 1100; id++) {
+            ids.add(id);
+        }
+        ids.add(5000);
+
+        assertThat(ids.size()).isEqualTo(1051);
+        assertThat(ids.runCount()).isEqualTo(3);
+        assertThat(ids.get(0)).isEqualTo(1);
+        assertThat(ids.get(999)).isEqualTo(1000);
+        assertThat(ids.get(1000)).isEqualTo(1051);
+        assertThat(ids.get(1049)).isEqualTo(1100);
+        assertThat(ids.get(1050)).isEqualTo(5000);
+    }
+
+    @Test
+    void manyRunsGrowTheTables() {
+        IdRanges ids = new IdRanges();
+        for (long id = 0; id < 100; id++) {
+            ids.add(id * 10);
+        }
+
+        assertThat(ids.runCount()).isEqualTo(100);
+        assertThat(ids.get(42)).isEqualTo(420);
+        assertThat(ids.get(99)).isEqualTo(990);
+    }
+
+    @Test
+    void rejectsOutOfOrderIdsAndBadPositions() {
+        IdRanges ids = new IdRanges();
+        ids.add(10);
+
+        assertThatThrownBy(() -> ids.add(10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ids.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(new IdRanges().isEmpty()).isTrue();
+    }
+}
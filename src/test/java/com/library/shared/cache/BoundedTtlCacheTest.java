@@ -0,0 +1,64 @@
+package com.library.shared.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    private final BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1));
+
+    @Test
+    void loadRacingWithInvalidationOfSameKeyIsNotStored() {
+        String loaded = cache.get(1L, key -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void loadRacingWithInvalidationOfOtherKeyIsStored() {
+        cache.get(1L, key -> {
+            cache.invalidate(2L);
+            return "fresh";
+        });
+
+        assertThat(cache.getIfPresent(1L)).isEqualTo("fresh");
+    }
+
+    @Test
+    void predicateInvalidationOnlyDropsMatchingKeys() {
+        cache.getAll(List.of(1L, 2L), keys -> {
+            cache.invalidateIf(key -> key == 2L);
+            return Map.of(1L, "one", 2L, "two");
+        });
+
+        assertThat(cache.getIfPresent(1L)).isEqualTo("one");
+        assertThat(cache.getIfPresent(2L)).isNull();
+    }
+
+    @Test
+    void invalidateAllDropsEveryLoadInFlight() {
+        cache.get(1L, key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void invalidationBeforeLoadDoesNotBlockLaterLoads() {
+        cache.invalidate(1L);
+        cache.get(1L, key -> "value");
+
+        assertThat(cache.getIfPresent(1L)).isEqualTo("value");
+    }
+}
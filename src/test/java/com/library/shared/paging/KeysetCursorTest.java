@@ -0,0 +1,86 @@
+package com.library.shared.paging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000), 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void undatedCursorDecodesWithoutTimestamp() {
+        KeysetCursor cursor = new KeysetCursor(null, 7L);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm9zZXBhcmF0b3I", "MjAyNC0wMy0wMVQxMjozMHxhYmM", "Z2FyYmFnZXw0Mg"})
+    void tamperedOrGarbageTokensAreRejected(String token) {
+        // bm9z... = "noseparator", MjAy... = "2024-03-01T12:30|abc", Z2Fy... = "garbage|42"
+        assertThatThrownBy(() -> KeysetCursor.decode(token))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void editedIdIsRejectedWhenItIsNotANumber() {
+        String raw = new String(Base64.getUrlDecoder().decode(new KeysetCursor(LocalDateTime.now(), 5L).encode()),
+            StandardCharsets.UTF_8);
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((raw + "; DROP TABLE books").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(tampered)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorNeedsAnId() {
+        assertThatThrownBy(() -> new KeysetCursor(LocalDateTime.now(), null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pageSizeIsCappedAt500() {
+        assertThat(KeysetPage.clampSize(null)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.clampSize(0)).isEqualTo(1);
+        assertThat(KeysetPage.clampSize(-5)).isEqualTo(1);
+        assertThat(KeysetPage.clampSize(500)).isEqualTo(500);
+        assertThat(KeysetPage.clampSize(10_000)).isEqualTo(KeysetPage.MAX_SIZE).isEqualTo(500);
+    }
+
+    @Test
+    void pageCursorPointsAtTheLastReturnedRow() {
+        LocalDateTime tied = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<KeysetCursor> rows = List.of(new KeysetCursor(tied, 3L), new KeysetCursor(tied, 2L),
+            new KeysetCursor(tied, 1L));
+
+        KeysetPage<KeysetCursor> page = KeysetPage.of(rows, 2, row -> row);
+
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(tied, 2L));
+        assertThat(KeysetPage.of(rows, 3, row -> row).nextCursor()).isNull();
+    }
+}
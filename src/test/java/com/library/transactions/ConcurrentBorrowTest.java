@@ -0,0 +1,87 @@
+package com.library.transactions;
+
+import com.library.books.Book;
+import com.library.books.BookService;
+import com.library.users.User;
+import com.library.users.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many users racing for the same book must never lose or oversell a copy
+ */
+@SpringBootTest
+class ConcurrentBorrowTest {
+
+    private static final int THREADS = 200;
+    private static final int COPIES = 50;
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void concurrentBorrowsKeepCopiesConsistent() throws InterruptedException {
+        Book book = bookService.saveBook(new Book("978-0-00-000200-0", "Race Condition", "Test Author", "Testing", COPIES));
+        List<Long> userIds = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            User user = new User("borrower" + i, ENCODED_PASSWORD, "borrower" + i + "@test.local",
+                "Borrower", String.valueOf(i), User.Role.USER);
+            userIds.add(userService.createUser(user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        for (Long userId : userIds) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    transactionService.borrowBookEntity(userId, book.getId());
+                    borrowed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        Book reloaded = bookService.getBookByIdOptional(book.getId()).orElseThrow();
+        long activeLoans = transactionRepository
+            .findByBookIdAndStatus(book.getId(), Transaction.TransactionStatus.ACTIVE)
+            .size();
+
+        assertThat(borrowed.get() + rejected.get()).isEqualTo(THREADS);
+        assertThat(borrowed.get()).isEqualTo(COPIES);
+        assertThat(activeLoans).isEqualTo(borrowed.get());
+        assertThat(reloaded.getAvailableCopies() + activeLoans).isEqualTo(reloaded.getTotalCopies().longValue());
+        assertThat(reloaded.getStatus()).isEqualTo(Book.BookStatus.OUT_OF_STOCK);
+    }
+}
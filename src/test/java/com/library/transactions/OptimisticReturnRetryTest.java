@@ -0,0 +1,91 @@
+package com.library.transactions;
+
+import com.library.books.Book;
+import com.library.books.BookService;
+import com.library.users.User;
+import com.library.users.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A return that loses a version race is retried once and then succeeds
+ */
+@SpringBootTest
+class OptimisticReturnRetryTest {
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserService userService;
+
+    @SpyBean
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void versionConflictOnReturnIsRetried() {
+        Long userId = userService.createUser(new User("returner", ENCODED_PASSWORD, "returner@test.local",
+            "Return", "Retry", User.Role.USER)).getId();
+        Book book = bookService.saveBook(new Book("978-0-00-000300-0", "Stale Loan", "Test Author", "Testing", 1));
+        Long loanId = transactionService.borrowBookEntity(userId, book.getId()).getId();
+
+        // The first attempt has already loaded the loan; another writer moves its version on
+        TransactionTemplate otherWriter = new TransactionTemplate(transactionManager);
+        otherWriter.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger returns = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (returns.getAndIncrement() == 0) {
+                otherWriter.executeWithoutResult(status ->
+                    jdbcTemplate.update("UPDATE transactions SET version = version + 1 WHERE id = ?", loanId));
+            }
+            return invocation.callRealMethod();
+        }).when(bookService).returnBook(anyLong());
+
+        double attempts = count("transactions.optimistic.attempts");
+        double conflicts = count("transactions.optimistic.conflicts");
+        double retries = count("transactions.optimistic.retries");
+        double exhausted = count("transactions.optimistic.exhausted");
+
+        Transaction returned = transactionService.returnBookEntity(userId, book.getId());
+
+        assertThat(returns).hasValue(2);
+        assertThat(returned.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(bookService.getBookByIdOptional(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+        assertThat(count("transactions.optimistic.attempts") - attempts).isEqualTo(2);
+        assertThat(count("transactions.optimistic.conflicts") - conflicts).isEqualTo(1);
+        assertThat(count("transactions.optimistic.retries") - retries).isEqualTo(1);
+        assertThat(count("transactions.optimistic.exhausted") - exhausted).isZero();
+    }
+
+    private double count(String name) {
+        return Search.in(meterRegistry).name(name).tag("operation", "return").counters().stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    }
+}
@@ -0,0 +1,176 @@
+package com.library.transactions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.books.Book;
+import com.library.books.BookService;
+import com.library.users.User;
+import com.library.users.UserService;
+import com.opencsv.CSVReader;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export formats and the optional created-at range and status filters.
+ * The loans are moved to 1999 so the seeded ledger never falls in range.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TransactionExportServiceTest {
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(1999, 1, 1, 10, 0);
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void createLoansOnConsecutiveDays() {
+        String suffix = String.valueOf(System.nanoTime());
+        Long userId = userService.createUser(new User("exporter" + suffix, ENCODED_PASSWORD,
+            "exporter" + suffix + "@test.local", "Export", "Test", User.Role.USER)).getId();
+        for (int day = 0; day < 3; day++) {
+            Book book = bookService.saveBook(new Book("979-3-" + suffix + "-" + day, "Exported " + day,
+                "Author", "General", 1));
+            loanIds.add(transactionService.borrowBookEntity(userId, book.getId()).getId());
+            if (day == 1) {
+                transactionService.returnBookEntity(userId, book.getId());
+            }
+        }
+        for (int day = 0; day < 3; day++) {
+            jdbcTemplate.update("UPDATE transactions SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(DAY_ONE.plusDays(day)), loanIds.get(day));
+        }
+        jdbcTemplate.update("UPDATE transactions SET notes = ? WHERE id = ?", "late, \"damaged\"", loanIds.get(0));
+    }
+
+    @AfterEach
+    void deleteLoans() {
+        loanIds.forEach(id -> jdbcTemplate.update("DELETE FROM transactions WHERE id = ?", id));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.export(TransactionExportService.Format.NDJSON,
+            DAY_ONE, DAY_ONE.plusDays(3), null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            ids.add(row.get("id").asLong());
+        }
+        assertThat(ids).containsExactlyElementsOf(loanIds);
+        assertThat(objectMapper.readTree(lines[0]).get("notes").asText()).isEqualTo("late, \"damaged\"");
+        assertThat(objectMapper.readTree(lines[1]).get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void csvWritesHeaderAndQuotedRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.export(TransactionExportService.Format.CSV,
+            DAY_ONE, DAY_ONE.plusDays(3), null, out);
+
+        List<String[]> rows;
+        try (CSVReader reader = new CSVReader(new StringReader(out.toString(StandardCharsets.UTF_8)))) {
+            rows = reader.readAll();
+        }
+        assertThat(written).isEqualTo(3);
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).containsExactly("id", "userId", "bookId", "type", "status", "borrowedAt",
+            "dueDate", "returnedAt", "createdAt", "updatedAt", "notes");
+        assertThat(rows.get(1)[0]).isEqualTo(String.valueOf(loanIds.get(0)));
+        assertThat(rows.get(1)[8]).isEqualTo(DAY_ONE.toString());
+        assertThat(rows.get(1)[10]).isEqualTo("late, \"damaged\"");
+        assertThat(rows.get(2)[4]).isEqualTo("COMPLETED");
+        // Nulls are written as empty fields
+        assertThat(rows.get(3)[7]).isEmpty();
+    }
+
+    @Test
+    void rangeIsInclusiveFromAndExclusiveTo() throws IOException {
+        assertThat(exportIds(DAY_ONE, DAY_ONE.plusDays(2), null)).containsExactly(loanIds.get(0), loanIds.get(1));
+        assertThat(exportIds(DAY_ONE.plusDays(1), null, null)).contains(loanIds.get(1), loanIds.get(2))
+            .doesNotContain(loanIds.get(0));
+        assertThat(exportIds(null, DAY_ONE.plusDays(1), null)).containsExactly(loanIds.get(0));
+    }
+
+    @Test
+    void statusFilterCombinesWithTheRange() throws IOException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(exportIds(DAY_ONE, DAY_ONE.plusDays(3), Transaction.TransactionStatus.COMPLETED))
+            .containsExactly(loanIds.get(1));
+        // Filtered by the query, not after loading
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+
+        assertThat(exportIds(DAY_ONE, DAY_ONE.plusDays(3), Transaction.TransactionStatus.ACTIVE))
+            .containsExactly(loanIds.get(0), loanIds.get(2));
+    }
+
+    @Test
+    void noFiltersExportTheWholeLedger() throws IOException {
+        assertThat(exportIds(null, null, null)).hasSize((int) transactionRepository.count())
+            .containsAll(loanIds);
+    }
+
+    private List<Long> exportIds(LocalDateTime from, LocalDateTime to, Transaction.TransactionStatus status)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(TransactionExportService.Format.NDJSON, from, to, status, out);
+        List<Long> ids = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readTree(line).get("id").asLong());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.users;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterTest {
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Test
+    void cachesSnapshotAndServesProfileFromTheRow() throws Exception {
+        User user = createUser("snapshot.librarian", User.Role.LIBRARIAN);
+        String bearer = "Bearer " + jwtUtils.generateToken(user);
+
+        mockMvc.perform(get("/api/users/profile").header("Authorization", bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username").value("snapshot.librarian"))
+            .andExpect(jsonPath("$.email").value("snapshot.librarian@test.local"));
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isOk());
+
+        AuthenticatedUser cached = principalCache.get(user.getUsername(), jwtUtils.extractIssuedAt(bearer.substring(7)),
+            () -> null);
+        assertThat(cached).isEqualTo(new AuthenticatedUser(user.getId(), user.getUsername(), User.Role.LIBRARIAN, true, 0));
+    }
+
+    @Test
+    void roleChangeAndDisablingApplyToCachedTokens() throws Exception {
+        User user = createUser("demoted.librarian", User.Role.LIBRARIAN);
+        String bearer = "Bearer " + jwtUtils.generateToken(user);
+        mockMvc.perform(get("/api/users/profile").header("Authorization", bearer))
+            .andExpect(status().isOk());
+
+        userService.updateUserRole(user.getId(), User.Role.USER);
+
+        mockMvc.perform(get("/api/users/profile").header("Authorization", bearer))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isOk());
+
+        userService.updateUserEnabled(user.getId(), false);
+
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void loadsOnceForRepeatedRequestsWithTheSameToken() {
+        AuthenticatedUser first = principalCache.get("repeat.user", new Date(1_000L),
+            () -> new AuthenticatedUser(1L, "repeat.user", User.Role.USER, true, 0));
+        AuthenticatedUser second = principalCache.get("repeat.user", new Date(1_000L),
+            () -> { throw new AssertionError("Loaded twice"); });
+
+        assertThat(second).isSameAs(first);
+    }
+
+    private User createUser(String username, User.Role role) {
+        return userService.createUser(new User(username, ENCODED_PASSWORD, username + "@test.local",
+            "Test", "User", role));
+    }
+}
@@ -0,0 +1,84 @@
+package com.library.users;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "jwt.stateless-claims.enabled=true",
+    "jwt.token-version.refresh-seconds=0"
+})
+@AutoConfigureMockMvc
+class StatelessClaimsAuthenticationTest {
+
+    // Pre-encoded so createUser skips BCrypt
+    private static final String ENCODED_PASSWORD = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8fNe1xEZRu0L4HjFTYdWqUy";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void profileIsLoadedForClaimsPrincipalWithoutTokenVersion() throws Exception {
+        User user = createUser("claims.librarian", User.Role.LIBRARIAN);
+        String bearer = "Bearer " + jwtUtils.generateToken(user);
+
+        mockMvc.perform(get("/api/users/profile").header("Authorization", bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(user.getId()))
+            .andExpect(jsonPath("$.email").value("claims.librarian@test.local"))
+            .andExpect(jsonPath("$.firstName").value("Test"))
+            .andExpect(jsonPath("$.tokenVersion").doesNotExist());
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void roleChangeRevokesIssuedTokens() throws Exception {
+        User user = createUser("claims.revoked", User.Role.LIBRARIAN);
+        String bearer = "Bearer " + jwtUtils.generateToken(user);
+
+        userService.updateUserRole(user.getId(), User.Role.ADMIN);
+
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isForbidden());
+        String renewed = "Bearer " + jwtUtils.generateToken(userService.getUserById(user.getId()).orElseThrow());
+        mockMvc.perform(get("/api/users/profile").header("Authorization", renewed))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.role").value("ADMIN"));
+    }
+
+    @Test
+    void revocationWrittenByAnotherNodeIsPickedUp() throws Exception {
+        User user = createUser("claims.remote", User.Role.LIBRARIAN);
+        String bearer = "Bearer " + jwtUtils.generateToken(user);
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isOk());
+
+        // Bypass the service, as a revocation on another node would
+        jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE id = ?", user.getId());
+
+        mockMvc.perform(get("/api/transactions/my").header("Authorization", bearer))
+            .andExpect(status().isForbidden());
+    }
+
+    private User createUser(String username, User.Role role) {
+        return userService.createUser(new User(username, ENCODED_PASSWORD, username + "@test.local",
+            "Test", "User", role));
+    }
+}